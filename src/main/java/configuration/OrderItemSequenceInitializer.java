@@ -0,0 +1,44 @@
+package configuration;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.persistence.EntityManagerFactory;
+
+/**
+ * order_items ids used to come from AUTO_INCREMENT. The pooled generator's table
+ * (order_items_seq) starts at 1 when ddl-auto creates it, so move it past the
+ * highest existing id before the first insert. Runs after the EntityManagerFactory
+ * has updated the schema and before the web server takes traffic.
+ */
+@Component
+public class OrderItemSequenceInitializer {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderItemSequenceInitializer.class);
+
+    // At least two allocation blocks (allocationSize = 50) above the current max id
+    private static final String ADVANCE_SQL =
+            "UPDATE order_items_seq SET next_val = GREATEST(next_val, "
+          + "(SELECT COALESCE(MAX(id), 0) + 100 FROM order_items))";
+
+    private final JdbcTemplate jdbcTemplate;
+
+    // Taken only to make sure the schema update has run first
+    public OrderItemSequenceInitializer(JdbcTemplate jdbcTemplate, EntityManagerFactory entityManagerFactory) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void advancePastExistingIds() {
+        try {
+            jdbcTemplate.update(ADVANCE_SQL);
+        } catch (DataAccessException e) {
+            // Databases with native sequences have no order_items_seq table
+            log.debug("[ORDER ITEMS] Sequence table not advanced: {}", e.getMessage());
+        }
+    }
+}
@@ -0,0 +1,17 @@
+package configuration;
+
+import java.time.ZoneId;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+@Configuration
+public class ReportConfig {
+
+    // Business time zone that decides which local day an order belongs to (e.g. Asia/Kolkata)
+    @Bean
+    public ZoneId reportZone(@Value("${app.reports.zone:}") String zone) {
+        return zone == null || zone.isBlank() ? ZoneId.systemDefault() : ZoneId.of(zone);
+    }
+}
@@ -12,8 +12,10 @@ import org.springframework.web.bind.annotation.RestController;
 
 import dbmodel.FoodItem;
 import repository.FoodItemRepository;
+import services.InventoryLedger;
 
 import java.util.List;
+import java.util.Map;
 
 @RestController
 @RequestMapping("/api")
@@ -21,6 +23,9 @@ public class FoodItemController {
 
     @Autowired
     private FoodItemRepository foodItemRepository;
+
+    @Autowired
+    private InventoryLedger inventoryLedger;
     
     @GetMapping("/food-items")
     public List<FoodItem> getAllFoodItems() {
@@ -29,15 +34,19 @@ public class FoodItemController {
     
     @PostMapping("/admin/food-items")
     public FoodItem createFoodItem(@RequestBody FoodItem foodItem) {
-        return foodItemRepository.save(foodItem);
+        FoodItem saved = foodItemRepository.save(foodItem);
+        inventoryLedger.reset(null, saved.getName());
+        return saved;
     }
     
     @DeleteMapping("/admin/food-items/{id}")
     public ResponseEntity<Void> deleteFoodItem(@PathVariable Integer id) {
-        if (!foodItemRepository.existsById(id)) {
+        FoodItem existing = foodItemRepository.findById(id).orElse(null);
+        if (existing == null) {
             return ResponseEntity.notFound().build();
         }
         foodItemRepository.deleteById(id);
+        inventoryLedger.reset(existing.getName(), null);
         return ResponseEntity.ok().build();
     }
     
@@ -45,6 +54,7 @@ public class FoodItemController {
     public ResponseEntity<FoodItem> updateFoodItem(@PathVariable Integer id, @RequestBody FoodItem foodItemDetails) {
         return foodItemRepository.findById(id)
             .map(existingItem -> {
+                String oldName = existingItem.getName();
                 existingItem.setName(foodItemDetails.getName());
                 existingItem.setDescription(foodItemDetails.getDescription());
                 existingItem.setPrice(foodItemDetails.getPrice());
@@ -52,8 +62,14 @@ public class FoodItemController {
                 existingItem.setVeg(foodItemDetails.getVeg());
                 existingItem.setInventory(foodItemDetails.getInventory());
                 FoodItem updatedItem = foodItemRepository.save(existingItem);
+                inventoryLedger.reset(oldName, updatedItem.getName());
                 return ResponseEntity.ok(updatedItem);
             })
             .orElse(ResponseEntity.notFound().build());
     }
-}
\ No newline at end of file
+
+    @GetMapping("/admin/inventory/ledger/stats")
+    public Map<String, Object> getInventoryLedgerStats() {
+        return inventoryLedger.stats();
+    }
+}
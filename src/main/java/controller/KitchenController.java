@@ -0,0 +1,71 @@
+package controller;
+
+import java.util.Map;
+
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.CrossOrigin;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import services.KitchenQueueService;
+import services.PrepAggregator;
+
+@RestController
+@RequestMapping("/api/kitchen")
+@CrossOrigin(origins = "*")
+public class KitchenController {
+
+    private final KitchenQueueService kitchenQueue;
+    private final PrepAggregator prep;
+
+    public KitchenController(KitchenQueueService kitchenQueue, PrepAggregator prep) {
+        this.kitchenQueue = kitchenQueue;
+        this.prep = prep;
+    }
+
+    // Oldest first, served from memory; pass nextCursor back for the following page
+    @GetMapping("/queue")
+    public ResponseEntity<?> getQueue(@RequestParam(defaultValue = "ORDERED") String status,
+                                      @RequestParam(required = false) String cursor,
+                                      @RequestParam(defaultValue = "50") int size) {
+        try {
+            return ResponseEntity.ok(kitchenQueue.page(status, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (IllegalStateException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // Open orders per status
+    @GetMapping("/queue/summary")
+    public ResponseEntity<?> getQueueSummary() {
+        return ResponseEntity.ok(kitchenQueue.summary());
+    }
+
+    // Re-reads every open order from the database, e.g. after orders were edited outside the API
+    @PostMapping("/queue/rebuild")
+    public ResponseEntity<?> rebuildQueue() {
+        kitchenQueue.rebuild();
+        return ResponseEntity.ok(kitchenQueue.summary());
+    }
+
+    // Open quantity per dish across ORDERED and PREPARING orders; also pushed as PREP on /api/orders/admin/stream
+    @GetMapping("/prep")
+    public ResponseEntity<?> getPrep() {
+        if (!prep.isLoaded()) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                    .body(Map.of("message", "Kitchen queue is still loading"));
+        }
+        return ResponseEntity.ok(prep.snapshot());
+    }
+
+    @PostMapping("/prep/reconcile")
+    public ResponseEntity<?> reconcilePrep() {
+        return ResponseEntity.ok(prep.reconcile());
+    }
+}
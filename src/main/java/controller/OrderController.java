@@ -1,7 +1,17 @@
 package controller;
 
+import java.io.IOException;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ContentDisposition;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.CrossOrigin;
 import org.springframework.web.bind.annotation.GetMapping;
@@ -9,14 +19,30 @@ import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.PutMapping;
 import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestHeader;
 import org.springframework.web.bind.annotation.RequestMapping;
 import org.springframework.web.bind.annotation.RequestParam;
 import org.springframework.web.bind.annotation.RestController;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
 
 import dbmodel.Order;
+import dto.BulkStatusUpdateRequestDTO;
 import dto.OrderRequestDTO;
 import dto.OrderResponseDTO;
+import dto.OrderStatusUpdateResult;
+import jakarta.servlet.http.HttpServletResponse;
+import services.BulkOrderStatusService;
+import services.IdempotencyService;
+import services.InsufficientInventoryException;
+import services.InvoiceDispatcher;
+import services.OrderEventStream;
+import services.OrderExportService;
+import services.OrderIntakeService;
 import services.OrderService;
+import services.OrderStatusConflictException;
 
 @RestController
 @RequestMapping("/api/orders")
@@ -24,13 +50,112 @@ import services.OrderService;
 public class OrderController {
     
 	private final OrderService orderService;
-    public OrderController(OrderService orderService) 
-    { this.orderService = orderService;}
+	private final OrderExportService exportService;
+	private final IdempotencyService idempotencyService;
+	private final OrderIntakeService intakeService;
+	private final BulkOrderStatusService bulkStatusService;
+	private final InvoiceDispatcher invoiceDispatcher;
+	private final OrderEventStream eventStream;
+	private final ObjectMapper objectMapper;
+
+    public OrderController(OrderService orderService,
+                           OrderExportService exportService,
+                           IdempotencyService idempotencyService,
+                           OrderIntakeService intakeService,
+                           BulkOrderStatusService bulkStatusService,
+                           InvoiceDispatcher invoiceDispatcher,
+                           OrderEventStream eventStream,
+                           ObjectMapper objectMapper) {
+        this.orderService = orderService;
+        this.exportService = exportService;
+        this.idempotencyService = idempotencyService;
+        this.intakeService = intakeService;
+        this.bulkStatusService = bulkStatusService;
+        this.invoiceDispatcher = invoiceDispatcher;
+        this.eventStream = eventStream;
+        this.objectMapper = objectMapper;
+    }
 
+    // Retries that repeat the Idempotency-Key get the first response back, byte for byte
     @PostMapping("/place")
-    public ResponseEntity<?> placeOrder(@RequestBody OrderRequestDTO request) {
+    public ResponseEntity<?> placeOrder(@RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey,
+                                        @RequestBody OrderRequestDTO request) throws JsonProcessingException {
+        if (idempotencyKey == null || idempotencyKey.isBlank()) {
+            return place(request);
+        }
+        if (idempotencyKey.length() > IdempotencyService.MAX_KEY_LENGTH) {
+            return ResponseEntity.badRequest().body(Map.of("message",
+                    "Idempotency-Key must be at most " + IdempotencyService.MAX_KEY_LENGTH + " characters"));
+        }
+
+        try {
+            IdempotencyService.StoredResponse stored = idempotencyService.execute(idempotencyKey,
+                    objectMapper.writeValueAsBytes(request), () -> render(place(request)));
+            return ResponseEntity.status(stored.status())
+                    .contentType(MediaType.parseMediaType(stored.contentType()))
+                    .body(stored.body());
+        } catch (IdempotencyService.KeyReuseException e) {
+            return ResponseEntity.unprocessableEntity().body(Map.of("message", e.getMessage()));
+        } catch (IdempotencyService.InProgressException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    private ResponseEntity<?> place(OrderRequestDTO request) {
+        if (intakeService.isEnabled()) {
+            return enqueue(request);
+        }
+        try {
             String orderId = orderService.placeOrder(request);
             return ResponseEntity.ok().body("Order placed successfully! Your Order ID is: " + orderId);
+        } catch (InsufficientInventoryException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // Async intake: 202 with the order id now, the order itself is placed by a worker
+    private ResponseEntity<?> enqueue(OrderRequestDTO request) {
+        try {
+            String orderId = intakeService.submit(request);
+            return ResponseEntity.accepted().body(Map.of("orderId", orderId,
+                    "status", OrderIntakeService.IntakeStatus.QUEUED.name()));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .header(HttpHeaders.RETRY_AFTER, "1")
+                    .body(Map.of("message", "Too many orders right now, please retry shortly"));
+        }
+    }
+
+    // Poll after a 202 from /place until the order is ACCEPTED or REJECTED
+    @GetMapping("/intake/{orderId}")
+    public ResponseEntity<?> getIntakeStatus(@PathVariable String orderId) {
+        OrderIntakeService.Intake intake = intakeService.status(orderId);
+        if (intake == null) {
+            return ResponseEntity.status(HttpStatus.NOT_FOUND).body(Map.of("message", "Unknown order id"));
+        }
+        return ResponseEntity.ok(intake);
+    }
+
+    @GetMapping("/admin/intake/stats")
+    public ResponseEntity<?> getIntakeStats() {
+        return ResponseEntity.ok(intakeService.stats());
+    }
+
+    // Freezes a response into the exact bytes the client receives, so replays can match them
+    private IdempotencyService.StoredResponse render(ResponseEntity<?> response) {
+        Object body = response.getBody();
+        try {
+            if (body instanceof String text) {
+                return new IdempotencyService.StoredResponse(response.getStatusCode().value(),
+                        "text/plain;charset=UTF-8", text.getBytes(StandardCharsets.UTF_8));
+            }
+            return new IdempotencyService.StoredResponse(response.getStatusCode().value(),
+                    MediaType.APPLICATION_JSON_VALUE, objectMapper.writeValueAsBytes(body));
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException(e);
+        }
     }
     
     @GetMapping("/admin/all")
@@ -38,10 +163,78 @@ public class OrderController {
             return ResponseEntity.ok(orderService.getAllOrdersForAdmin());
       }
     
+    // Keyset-paginated listing; pass the returned nextCursor back to get the following page
+    @GetMapping("/admin/page")
+    public ResponseEntity<?> getOrdersPage(@RequestParam(required = false) String status,
+                                           @RequestParam(required = false) String paymentMode,
+                                           @RequestParam(required = false) String email,
+                                           @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+                                           @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to,
+                                           @RequestParam(required = false) String cursor,
+                                           @RequestParam(defaultValue = "50") int size) {
+        if (from != null && to != null && from.isAfter(to)) {
+            return ResponseEntity.badRequest().body(Map.of("message", "from must not be after to"));
+        }
+        try {
+            return ResponseEntity.ok(orderService.getOrdersPageForAdmin(status, paymentMode, email, from, to, cursor, size));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message",
+                    "Invalid filter or cursor: " + e.getMessage()));
+        }
+    }
+    
+    // Streams every order (optionally within yyyy-MM-dd dates) as NDJSON or CSV
+    @GetMapping("/admin/export")
+    public void exportOrders(@RequestParam(defaultValue = "ndjson") String format,
+                             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+                             @RequestParam(required = false) @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to,
+                             HttpServletResponse response) throws IOException {
+        OrderExportService.Format exportFormat;
+        try {
+            exportFormat = OrderExportService.Format.valueOf(format.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            response.sendError(HttpStatus.BAD_REQUEST.value(), "Invalid format. Allowed values: ndjson, csv");
+            return;
+        }
+
+        String extension = exportFormat == OrderExportService.Format.NDJSON ? "ndjson" : "csv";
+        response.setContentType(exportFormat == OrderExportService.Format.NDJSON
+                ? "application/x-ndjson" : "text/csv");
+        response.setCharacterEncoding("UTF-8");
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION, ContentDisposition.attachment()
+                .filename("orders-export." + extension).build().toString());
+
+        exportService.export(exportFormat, from, to, response.getOutputStream());
+    }
+    
     @PutMapping("/admin/status/{orderId}")
     public ResponseEntity<?> updateOrderStatus(@PathVariable String orderId,@RequestParam String status) {
+        try {
             String msg = orderService.updateOrderStatus(orderId, status);
             return ResponseEntity.ok(msg);
+        } catch (OrderStatusConflictException e) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // Moves up to BulkOrderStatusService.MAX_ORDERS orders at once; every id gets its own outcome
+    @PutMapping("/admin/status/bulk")
+    public ResponseEntity<?> updateOrderStatuses(@RequestBody BulkStatusUpdateRequestDTO request) {
+        try {
+            List<OrderStatusUpdateResult> results =
+                    bulkStatusService.updateStatuses(request.getOrderIds(), request.getStatus());
+            long updated = results.stream()
+                    .filter(r -> r.outcome() == OrderStatusUpdateResult.Outcome.UPDATED)
+                    .count();
+            return ResponseEntity.ok(Map.of("updated", updated, "results", results));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    @GetMapping("/admin/invoices/stats")
+    public ResponseEntity<?> getInvoiceStats() {
+        return ResponseEntity.ok(invoiceDispatcher.stats());
     }
 
     @GetMapping("/user/{email}")
@@ -49,6 +242,32 @@ public class OrderController {
         List<OrderResponseDTO> response = orderService.getOrdersByUserEmail(email);
         return ResponseEntity.ok(response);
     }
+
+    // Live PLACED / STATUS_CHANGED events for one customer's orders, instead of polling /user/{email}
+    @GetMapping("/user/{email}/stream")
+    public ResponseEntity<?> streamUserOrders(@PathVariable String email) {
+        return stream(email);
+    }
+
+    // Every new order and status change, for the admin dashboard and kitchen screens
+    @GetMapping("/admin/stream")
+    public ResponseEntity<?> streamAllOrders() {
+        return stream(null);
+    }
+
+    @GetMapping("/admin/stream/stats")
+    public ResponseEntity<?> getStreamStats() {
+        return ResponseEntity.ok(eventStream.stats());
+    }
+
+    private ResponseEntity<?> stream(String email) {
+        try {
+            SseEmitter emitter = eventStream.subscribe(email);
+            return ResponseEntity.ok().header("X-Accel-Buffering", "no").body(emitter);
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE).body(Map.of("message", e.getMessage()));
+        }
+    }
     
 
 }
\ No newline at end of file
@@ -1,13 +1,26 @@
 package controller;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.*;
 import org.springframework.web.bind.annotation.*;
+import services.FulfilmentLatencyService;
+import services.OrderAnalyticsCache;
+import services.ReportDayCache;
+import services.ReportJobService;
 import services.ReportService;
+import services.SalesRollupService;
 
+import jakarta.servlet.http.HttpServletResponse;
+
+import java.io.IOException;
+import java.time.DateTimeException;
 import java.time.LocalDate;
+import java.time.ZoneId;
 import java.util.Map;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/admin/reports")
@@ -17,6 +30,21 @@ public class ReportController {
     @Autowired
     private ReportService reportService;
 
+    @Autowired
+    private SalesRollupService rollupService;
+
+    @Autowired
+    private OrderAnalyticsCache analyticsCache;
+
+    @Autowired
+    private ReportDayCache dayCache;
+
+    @Autowired
+    private ReportJobService jobService;
+
+    @Autowired
+    private FulfilmentLatencyService latencyService;
+
     // 📌 Single Day Report (yyyy-MM-dd)
     @GetMapping("/day")
     public Map<String, Object> getDayReport(
@@ -41,11 +69,62 @@ public class ReportController {
         return reportService.generateReport(from, to);
     }
 
+    // 📌 Status x payment mode x hour-of-day breakdown (yyyy-MM-dd)
+    @GetMapping("/breakdown")
+    public ResponseEntity<?> getBreakdown(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to,
+            @RequestParam(required = false) String zone) {
+
+        ZoneId zoneId = resolveZone(zone);
+        if (zoneId == null) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Unknown time zone: " + zone));
+        }
+        return ResponseEntity.ok(reportService.getBreakdown(from, to, zoneId));
+    }
+
+    // 📌 Revenue / order time series: bucket = hour | day | week, optional zone (e.g. Asia/Kolkata)
+    @GetMapping("/series")
+    public ResponseEntity<?> getSeries(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to,
+            @RequestParam(defaultValue = "day") String bucket,
+            @RequestParam(required = false) String zone) {
+
+        ZoneId zoneId = resolveZone(zone);
+        if (zoneId == null) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Unknown time zone: " + zone));
+        }
+
+        ReportService.SeriesBucket seriesBucket;
+        try {
+            seriesBucket = ReportService.SeriesBucket.valueOf(bucket.toUpperCase());
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Invalid bucket. Allowed values: hour, day, week"));
+        }
+
+        try {
+            return ResponseEntity.ok(reportService.getSeries(from, to, seriesBucket, zoneId));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // 📌 Item sales: quantity, revenue and orders per dish, best sellers first (yyyy-MM-dd)
+    @GetMapping("/items")
+    public Map<String, Object> getItemReport(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to,
+            @RequestParam(required = false) Integer limit) {
+
+        return reportService.getItemReport(from, to, limit);
+    }
+
     // 📌 Download PDF
     @GetMapping("/pdf")
     public ResponseEntity<byte[]> downloadPDF(
             @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
-            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to) {
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to) throws IOException {
 
         byte[] pdfBytes = reportService.generatePDFReport(from, to);
 
@@ -58,4 +137,138 @@ public class ReportController {
 
         return new ResponseEntity<>(pdfBytes, headers, HttpStatus.OK);
     }
+
+    // 📌 Download itemized PDF (every order and line item), streamed as it is rendered
+    @GetMapping(value = "/pdf", params = "itemized=true")
+    public void downloadItemizedPDF(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to,
+            HttpServletResponse response) throws IOException {
+
+        response.setContentType(MediaType.APPLICATION_PDF_VALUE);
+        response.setHeader(HttpHeaders.CONTENT_DISPOSITION,
+                ContentDisposition.attachment()
+                        .filename("report-itemized-" + from + "_to_" + to + ".pdf")
+                        .build()
+                        .toString());
+
+        reportService.writeItemizedPDFReport(from, to, response.getOutputStream());
+    }
+
+    // 📌 Queue a background report: type = pdf | itemized-pdf | csv (yyyy-MM-dd)
+    @PostMapping("/jobs")
+    public ResponseEntity<?> submitJob(
+            @RequestParam String type,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to) {
+
+        ReportJobService.JobType jobType;
+        try {
+            jobType = ReportJobService.JobType.valueOf(type.toUpperCase().replace('-', '_'));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", "Invalid type. Allowed values: pdf, itemized-pdf, csv"));
+        }
+
+        try {
+            ReportJobService.ReportJob job = jobService.submit(jobType, from, to);
+            return ResponseEntity.accepted().body(jobService.describe(job));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+                    .body(Map.of("message", "Report queue is full, try again shortly"));
+        }
+    }
+
+    // 📌 Job status
+    @GetMapping("/jobs/{jobId}")
+    public ResponseEntity<?> getJob(@PathVariable String jobId) {
+
+        ReportJobService.ReportJob job = jobService.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(jobService.describe(job));
+    }
+
+    // 📌 Download a finished job's file; Spring streams it in chunks and answers Range requests
+    @GetMapping("/jobs/{jobId}/download")
+    public ResponseEntity<Resource> downloadJob(@PathVariable String jobId) {
+
+        ReportJobService.ReportJob job = jobService.getJob(jobId);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        if (job.getStatus() != ReportJobService.JobStatus.DONE) {
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+
+        Resource file = new FileSystemResource(job.getFile());
+        if (!file.exists()) {
+            // Expired between the status check and now
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok()
+                .contentType(MediaType.parseMediaType(job.getContentType()))
+                .header(HttpHeaders.CONTENT_DISPOSITION,
+                        ContentDisposition.attachment().filename(job.getFileName()).build().toString())
+                .body(file);
+    }
+
+    // 📌 Recompute daily_sales_rollup from historical orders
+    @PostMapping("/rollups/rebuild")
+    public Map<String, Object> rebuildRollups() {
+
+        return rollupService.rebuild();
+    }
+
+    // 📌 Compare rollups with raw orders (yyyy-MM-dd)
+    @GetMapping("/rollups/verify")
+    public Map<String, Object> verifyRollups(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to) {
+
+        return rollupService.verify(from, to);
+    }
+
+    // 📌 Row count and memory footprint of the in-memory report columns
+    @GetMapping("/cache/stats")
+    public Map<String, Object> cacheStats() {
+
+        return analyticsCache.stats();
+    }
+
+    // 📌 Hit / miss / invalidation counters of the closed-day report cache
+    @GetMapping("/day-cache/stats")
+    public Map<String, Object> dayCacheStats() {
+
+        return dayCache.stats();
+    }
+
+    // 📌 Fulfilment latency p50 / p90 / p99 per day and status transition (yyyy-MM-dd)
+    @GetMapping("/fulfilment")
+    public ResponseEntity<?> getFulfilmentReport(
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate from,
+            @RequestParam @DateTimeFormat(pattern = "yyyy-MM-dd") LocalDate to) {
+
+        try {
+            return ResponseEntity.ok(latencyService.dailyReport(from, to));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().body(Map.of("message", e.getMessage()));
+        }
+    }
+
+    // 📌 Fulfilment latency over the last 5 / 15 / 60 minutes
+    @GetMapping("/fulfilment/live")
+    public Map<String, Object> getLiveFulfilment() {
+
+        return latencyService.live();
+    }
+
+    private ZoneId resolveZone(String zone) {
+        if (zone == null || zone.isBlank()) return reportService.getReportZone();
+        try {
+            return ZoneId.of(zone);
+        } catch (DateTimeException e) {
+            return null;
+        }
+    }
 }
@@ -0,0 +1,65 @@
+package dbmodel;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.Id;
+import jakarta.persistence.IdClass;
+import jakarta.persistence.Table;
+
+// One row per (business-local day, status, payment mode); maintained by SalesRollupService
+@Entity
+@Table(name = "daily_sales_rollup")
+@IdClass(DailySalesRollupId.class)
+public class DailySalesRollup {
+
+    @Id
+    @Column(name = "sales_date", nullable = false)
+    private LocalDate salesDate;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "status", nullable = false, length = 24)
+    private OrderStatus status;
+
+    @Id
+    @Enumerated(EnumType.STRING)
+    @Column(name = "payment_mode", nullable = false, length = 8)
+    private PaymentMode paymentMode;
+
+    @Column(name = "order_count", nullable = false)
+    private long orderCount;
+
+    @Column(name = "revenue", nullable = false, precision = 14, scale = 2)
+    private BigDecimal revenue = BigDecimal.ZERO;
+
+    public DailySalesRollup() {}
+
+    public DailySalesRollup(LocalDate salesDate, OrderStatus status, PaymentMode paymentMode,
+                            long orderCount, BigDecimal revenue) {
+        this.salesDate = salesDate;
+        this.status = status;
+        this.paymentMode = paymentMode;
+        this.orderCount = orderCount;
+        this.revenue = revenue;
+    }
+
+    public LocalDate getSalesDate() { return salesDate; }
+    public void setSalesDate(LocalDate salesDate) { this.salesDate = salesDate; }
+
+    public OrderStatus getStatus() { return status; }
+    public void setStatus(OrderStatus status) { this.status = status; }
+
+    public PaymentMode getPaymentMode() { return paymentMode; }
+    public void setPaymentMode(PaymentMode paymentMode) { this.paymentMode = paymentMode; }
+
+    public long getOrderCount() { return orderCount; }
+    public void setOrderCount(long orderCount) { this.orderCount = orderCount; }
+
+    public BigDecimal getRevenue() { return revenue; }
+    public void setRevenue(BigDecimal revenue) { this.revenue = revenue; }
+}
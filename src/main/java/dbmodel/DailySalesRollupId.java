@@ -0,0 +1,37 @@
+package dbmodel;
+
+import java.io.Serializable;
+import java.time.LocalDate;
+import java.util.Objects;
+
+public class DailySalesRollupId implements Serializable {
+
+    private static final long serialVersionUID = 1L;
+
+    private LocalDate salesDate;
+    private OrderStatus status;
+    private PaymentMode paymentMode;
+
+    public DailySalesRollupId() {}
+
+    public DailySalesRollupId(LocalDate salesDate, OrderStatus status, PaymentMode paymentMode) {
+        this.salesDate = salesDate;
+        this.status = status;
+        this.paymentMode = paymentMode;
+    }
+
+    @Override
+    public boolean equals(Object o) {
+        if (this == o) return true;
+        if (!(o instanceof DailySalesRollupId)) return false;
+        DailySalesRollupId that = (DailySalesRollupId) o;
+        return Objects.equals(salesDate, that.salesDate)
+                && status == that.status
+                && paymentMode == that.paymentMode;
+    }
+
+    @Override
+    public int hashCode() {
+        return Objects.hash(salesDate, status, paymentMode);
+    }
+}
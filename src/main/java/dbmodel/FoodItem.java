@@ -4,12 +4,16 @@ import jakarta.persistence.Entity;
 import jakarta.persistence.GeneratedValue;
 import jakarta.persistence.GenerationType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.Table;
 
 import java.math.BigDecimal;
 
 @Entity
-@Table(name = "food_items")
+// Orders decrement stock by name, so the UPDATE must be an index lookup, not a table scan
+@Table(name = "food_items", indexes = {
+        @Index(name = "idx_food_items_name", columnList = "name")
+})
 public class FoodItem {
 
     @Id
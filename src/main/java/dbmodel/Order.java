@@ -5,6 +5,9 @@ import java.time.Instant;
 import java.util.ArrayList;
 import java.util.List;
 
+import org.hibernate.annotations.BatchSize;
+import org.springframework.data.domain.Persistable;
+
 import jakarta.persistence.CascadeType;
 import jakarta.persistence.Column;
 import jakarta.persistence.Entity;
@@ -12,12 +15,23 @@ import jakarta.persistence.EnumType;
 import jakarta.persistence.Enumerated;
 import jakarta.persistence.FetchType;
 import jakarta.persistence.Id;
+import jakarta.persistence.Index;
 import jakarta.persistence.OneToMany;
+import jakarta.persistence.PostLoad;
+import jakarta.persistence.PostPersist;
 import jakarta.persistence.Table;
+import jakarta.persistence.Transient;
+import jakarta.persistence.Version;
 
 @Entity
-@Table(name = "orders")
-public class Order {
+@Table(name = "orders", indexes = {
+        @Index(name = "idx_orders_ordered_at_id", columnList = "ordered_at, order_ID"),
+        @Index(name = "idx_orders_status_ordered_at", columnList = "status, ordered_at, order_ID"),
+        @Index(name = "idx_orders_email_ordered_at", columnList = "user_email, ordered_at, order_ID"),
+        @Index(name = "idx_orders_payment_ordered_at", columnList = "payment_mode, ordered_at, order_ID"),
+        @Index(name = "idx_orders_status_changed_at", columnList = "status, status_changed_at")
+})
+public class Order implements Persistable<String> {
 
     @Id
     @Column(name = "order_ID", length = 20)
@@ -47,6 +61,22 @@ public class Order {
     @Column(name = "ordered_at", nullable = false)
     private Instant orderedAt;
 
+    // When the order entered its current status; null on rows from before it was tracked
+    @Column(name = "status_changed_at")
+    private Instant statusChangedAt;
+
+    // Invoice delivery for DELIVERED orders; written only by InvoiceDispatcher's compare-and-set queries
+    @Column(name = "invoice_claimed_at", insertable = false, updatable = false)
+    private Instant invoiceClaimedAt;
+
+    @Column(name = "invoice_sent_at", insertable = false, updatable = false)
+    private Instant invoiceSentAt;
+
+    // Bumped by every status change; status updates compare-and-set on (status, version)
+    @Version
+    @Column(name = "version", nullable = false, columnDefinition = "BIGINT default 0")
+    private long version;
+
     @Column(name = "discount", precision = 10, scale = 2)
     private BigDecimal discount;
 
@@ -59,15 +89,38 @@ public class Order {
     @Column(name = "final_amount", nullable = false, precision = 10, scale = 2)
     private BigDecimal finalAmount;
 
+    // Lazy by default; listings are projections that read items with one IN query, and any
+    // entity path that touches them loads up to 100 orders' items in one IN query
     @OneToMany(mappedBy = "order",
                cascade = CascadeType.ALL,
                orphanRemoval = true,
-               fetch = FetchType.EAGER)
+               fetch = FetchType.LAZY)
+    @BatchSize(size = 100)
     private List<OrderItem> items = new ArrayList<>();
 
+    // The id is assigned in code, so without this save() would merge and SELECT first
+    @Transient
+    private boolean isNew = true;
+
     public Order() {
     }
 
+    @Override
+    public String getId() {
+        return orderId;
+    }
+
+    @Override
+    public boolean isNew() {
+        return isNew;
+    }
+
+    @PostLoad
+    @PostPersist
+    void markNotNew() {
+        this.isNew = false;
+    }
+
     public Order(String orderId,
                  String userEmail,
                  String address,
@@ -150,6 +203,25 @@ public class Order {
         this.orderedAt = orderedAt;
     }
 
+    public Instant getStatusChangedAt() {
+        return statusChangedAt;
+    }
+    public void setStatusChangedAt(Instant statusChangedAt) {
+        this.statusChangedAt = statusChangedAt;
+    }
+
+    public long getVersion() {
+        return version;
+    }
+
+    public Instant getInvoiceClaimedAt() {
+        return invoiceClaimedAt;
+    }
+
+    public Instant getInvoiceSentAt() {
+        return invoiceSentAt;
+    }
+
     public BigDecimal getDiscount() {
         return discount;
     }
@@ -1,8 +1,36 @@
 package dbmodel;
 
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.Map;
+import java.util.Set;
+
 public enum OrderStatus {
     ORDERED,
     PREPARING,
     OUT_FOR_DELIVERY,
-    DELIVERED
-}
\ No newline at end of file
+    DELIVERED;
+
+    // Orders only move forward (a step may be skipped, e.g. pickup straight to DELIVERED); DELIVERED is final
+    private static final Map<OrderStatus, Set<OrderStatus>> NEXT = new EnumMap<>(OrderStatus.class);
+
+    static {
+        NEXT.put(ORDERED, Collections.unmodifiableSet(EnumSet.of(PREPARING, OUT_FOR_DELIVERY, DELIVERED)));
+        NEXT.put(PREPARING, Collections.unmodifiableSet(EnumSet.of(OUT_FOR_DELIVERY, DELIVERED)));
+        NEXT.put(OUT_FOR_DELIVERY, Collections.unmodifiableSet(EnumSet.of(DELIVERED)));
+        NEXT.put(DELIVERED, Collections.unmodifiableSet(EnumSet.noneOf(OrderStatus.class)));
+    }
+
+    public Set<OrderStatus> next() {
+        return NEXT.get(this);
+    }
+
+    public boolean canMoveTo(OrderStatus target) {
+        return NEXT.get(this).contains(target);
+    }
+
+    public boolean isFinal() {
+        return NEXT.get(this).isEmpty();
+    }
+}
@@ -0,0 +1,70 @@
+package dbmodel;
+
+import java.time.Instant;
+
+import jakarta.persistence.Column;
+import jakarta.persistence.Entity;
+import jakarta.persistence.EnumType;
+import jakarta.persistence.Enumerated;
+import jakarta.persistence.GeneratedValue;
+import jakarta.persistence.GenerationType;
+import jakarta.persistence.Id;
+import jakarta.persistence.Index;
+import jakarta.persistence.SequenceGenerator;
+import jakarta.persistence.Table;
+
+// Append-only: one row per placement (fromStatus null) and per status transition
+@Entity
+@Table(name = "order_status_history", indexes = {
+        @Index(name = "idx_status_history_order", columnList = "order_id, changed_at"),
+        @Index(name = "idx_status_history_changed_at", columnList = "changed_at")
+})
+public class OrderStatusHistory {
+
+    // Pooled ids so the rows of a bulk update go out as one insert batch
+    @Id
+    @GeneratedValue(strategy = GenerationType.SEQUENCE, generator = "order_status_history_seq")
+    @SequenceGenerator(name = "order_status_history_seq", sequenceName = "order_status_history_seq", allocationSize = 50)
+    private Long id;
+
+    @Column(name = "order_id", nullable = false, length = 20)
+    private String orderId;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "from_status", length = 24)
+    private OrderStatus fromStatus;
+
+    @Enumerated(EnumType.STRING)
+    @Column(name = "to_status", nullable = false, length = 24)
+    private OrderStatus toStatus;
+
+    @Column(name = "changed_at", nullable = false)
+    private Instant changedAt;
+
+    // Time spent in fromStatus; null for placements and when the entry time is unknown
+    @Column(name = "duration_ms")
+    private Long durationMs;
+
+    public OrderStatusHistory() {}
+
+    public OrderStatusHistory(String orderId, OrderStatus fromStatus, OrderStatus toStatus,
+                              Instant changedAt, Long durationMs) {
+        this.orderId = orderId;
+        this.fromStatus = fromStatus;
+        this.toStatus = toStatus;
+        this.changedAt = changedAt;
+        this.durationMs = durationMs;
+    }
+
+    public Long getId() { return id; }
+
+    public String getOrderId() { return orderId; }
+
+    public OrderStatus getFromStatus() { return fromStatus; }
+
+    public OrderStatus getToStatus() { return toStatus; }
+
+    public Instant getChangedAt() { return changedAt; }
+
+    public Long getDurationMs() { return durationMs; }
+}
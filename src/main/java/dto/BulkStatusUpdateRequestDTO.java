@@ -0,0 +1,15 @@
+package dto;
+
+import java.util.List;
+
+public class BulkStatusUpdateRequestDTO {
+
+    private List<String> orderIds;
+    private String status;
+
+    public List<String> getOrderIds() { return orderIds; }
+    public void setOrderIds(List<String> orderIds) { this.orderIds = orderIds; }
+
+    public String getStatus() { return status; }
+    public void setStatus(String status) { this.status = status; }
+}
@@ -0,0 +1,5 @@
+package dto;
+
+// Open quantity of one dish: not started (ORDERED), on the stove (PREPARING) and both together
+public record DishPrepDTO(String foodName, long ordered, long preparing, long total) {
+}
@@ -0,0 +1,13 @@
+package dto;
+
+import java.math.BigDecimal;
+
+public record ItemSalesDTO(String foodName, long quantity, BigDecimal revenue, long orderCount) {
+
+    public ItemSalesDTO plus(ItemSalesDTO other) {
+        return new ItemSalesDTO(foodName,
+                quantity + other.quantity,
+                revenue.add(other.revenue),
+                orderCount + other.orderCount);
+    }
+}
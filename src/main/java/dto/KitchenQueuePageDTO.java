@@ -0,0 +1,28 @@
+package dto;
+
+import java.util.List;
+
+public class KitchenQueuePageDTO {
+
+    private final String status;
+    private final int total;
+    private final List<KitchenTicket> tickets;
+    private final String nextCursor;
+
+    public KitchenQueuePageDTO(String status, int total, List<KitchenTicket> tickets, String nextCursor) {
+        this.status = status;
+        this.total = total;
+        this.tickets = tickets;
+        this.nextCursor = nextCursor;
+    }
+
+    public String getStatus() { return status; }
+
+    // Orders currently in this status, not just on this page
+    public int getTotal() { return total; }
+
+    public List<KitchenTicket> getTickets() { return tickets; }
+
+    // Null on the last page
+    public String getNextCursor() { return nextCursor; }
+}
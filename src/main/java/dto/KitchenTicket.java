@@ -0,0 +1,47 @@
+package dto;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+
+import dbmodel.OrderStatus;
+import dbmodel.PaymentMode;
+
+// One order as the kitchen queue holds it; immutable, a status change replaces the ticket
+public record KitchenTicket(String orderId,
+                            String name,
+                            String userEmail,
+                            String address,
+                            OrderStatus status,
+                            PaymentMode paymentMode,
+                            double finalAmount,
+                            Instant orderedAt,
+                            Instant statusChangedAt,
+                            List<Line> items) {
+
+    public record Line(String foodName, int quantity) {}
+
+    public static KitchenTicket of(OrderResponseDTO order) {
+        List<Line> lines = new ArrayList<>(order.getItems().size());
+        for (OrderResponseDTO.OrderItemDTO item : order.getItems()) {
+            lines.add(new Line(item.getFoodName(), item.getQuantity()));
+        }
+        return new KitchenTicket(order.getOrderId(), order.getName(), order.getUserEmail(), order.getAddress(),
+                OrderStatus.valueOf(order.getStatus()), PaymentMode.valueOf(order.getPaymentMode()),
+                order.getFinalAmount(), order.getOrderedAt(), null, List.copyOf(lines));
+    }
+
+    public static KitchenTicket of(OrderPlacedEvent event) {
+        List<Line> lines = new ArrayList<>(event.items().size());
+        for (OrderPlacedEvent.Item item : event.items()) {
+            lines.add(new Line(item.foodName(), item.quantity()));
+        }
+        return new KitchenTicket(event.orderId(), event.name(), event.userEmail(), event.address(), event.status(),
+                event.paymentMode(), event.finalAmount() == null ? 0 : event.finalAmount().doubleValue(),
+                event.orderedAt(), null, List.copyOf(lines));
+    }
+
+    public KitchenTicket moveTo(OrderStatus to, Instant at) {
+        return new KitchenTicket(orderId, name, userEmail, address, to, paymentMode, finalAmount, orderedAt, at, items);
+    }
+}
@@ -0,0 +1,19 @@
+package dto;
+
+import java.util.List;
+
+public class OrderPageDTO {
+
+    private final List<OrderResponseDTO> orders;
+    private final String nextCursor;
+
+    public OrderPageDTO(List<OrderResponseDTO> orders, String nextCursor) {
+        this.orders = orders;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<OrderResponseDTO> getOrders() { return orders; }
+
+    // Null on the last page
+    public String getNextCursor() { return nextCursor; }
+}
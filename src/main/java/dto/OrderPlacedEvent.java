@@ -0,0 +1,23 @@
+package dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import dbmodel.OrderStatus;
+import dbmodel.PaymentMode;
+
+// Published by OrderService inside the placing transaction; listeners react after commit.
+// Carries what the kitchen ticket needs, so no listener has to read the order back.
+public record OrderPlacedEvent(String orderId,
+                               String userEmail,
+                               Instant orderedAt,
+                               OrderStatus status,
+                               PaymentMode paymentMode,
+                               BigDecimal finalAmount,
+                               String name,
+                               String address,
+                               List<Item> items) {
+
+    public record Item(String foodName, int quantity) {}
+}
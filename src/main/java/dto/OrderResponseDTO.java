@@ -1,10 +1,14 @@
 package dto;
 
+import java.math.BigDecimal;
 import java.time.Instant;
+import java.util.ArrayList;
 import java.util.List;
 import java.util.stream.Collectors;
 
 import dbmodel.Order;
+import dbmodel.OrderStatus;
+import dbmodel.PaymentMode;
 
 public class OrderResponseDTO {
     private String orderId;
@@ -62,11 +66,11 @@ public class OrderResponseDTO {
         this.orderId = order.getOrderId();
         this.userEmail = order.getUserEmail();
         this.address = order.getAddress();
+        this.name = order.getName();
         this.status = order.getStatus().name();
         this.paymentMode = order.getPaymentMode().name();
         this.orderedAt = order.getOrderedAt();
-        this.finalAmount = order.getFinalAmount().doubleValue();
-        
+
         this.totalAmount = order.getTotalAmount() != null ? order.getTotalAmount().doubleValue() : 0.0;
         this.discount = order.getDiscount() != null ? order.getDiscount().doubleValue() : 0.0;
         this.gst = order.getGst() != null ? order.getGst().doubleValue() : 0.0;
@@ -81,15 +85,26 @@ public class OrderResponseDTO {
                 item.getPriceAtOrder().doubleValue()
             ))
             .collect(Collectors.toList());
+    }
 
-        // Convert order items to DTOs
-        this.items = order.getItems().stream()
-            .map(item -> new OrderItemDTO(
-                item.getFoodName(),
-                item.getQuantity(),
-                item.getPriceAtOrder().doubleValue()
-            ))
-            .collect(Collectors.toList());
+    // JPQL constructor expression target: built straight from columns, items attached afterwards
+    public OrderResponseDTO(String orderId, String userEmail, String address, String name,
+                            OrderStatus status, PaymentMode paymentMode, Instant orderedAt,
+                            BigDecimal totalAmount, BigDecimal discount, BigDecimal gst,
+                            BigDecimal deliveryFee, BigDecimal finalAmount) {
+        this.orderId = orderId;
+        this.userEmail = userEmail;
+        this.address = address;
+        this.name = name;
+        this.status = status.name();
+        this.paymentMode = paymentMode.name();
+        this.orderedAt = orderedAt;
+        this.totalAmount = totalAmount != null ? totalAmount.doubleValue() : 0.0;
+        this.discount = discount != null ? discount.doubleValue() : 0.0;
+        this.gst = gst != null ? gst.doubleValue() : 0.0;
+        this.deliveryFee = deliveryFee != null ? deliveryFee.doubleValue() : 0.0;
+        this.finalAmount = finalAmount != null ? finalAmount.doubleValue() : 0.0;
+        this.items = new ArrayList<>();
     }
 
 	// Getters & Setters
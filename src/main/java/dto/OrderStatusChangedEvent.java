@@ -0,0 +1,20 @@
+package dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import dbmodel.OrderStatus;
+import dbmodel.PaymentMode;
+
+// Published by OrderService when an order moves between statuses; listeners react after commit
+public record OrderStatusChangedEvent(String orderId,
+                                      String userEmail,
+                                      Instant orderedAt,
+                                      PaymentMode paymentMode,
+                                      BigDecimal finalAmount,
+                                      OrderStatus from,
+                                      OrderStatus to,
+                                      Instant changedAt,
+                                      // When the order entered from; null if not recorded (older rows)
+                                      Instant fromSince) {
+}
@@ -0,0 +1,21 @@
+package dto;
+
+import dbmodel.OrderStatus;
+
+// Outcome for one order of a bulk status update; from is null when the order was not found
+public record OrderStatusUpdateResult(String orderId,
+                                      Outcome outcome,
+                                      OrderStatus from,
+                                      OrderStatus to) {
+
+    public enum Outcome {
+        UPDATED,
+        UNCHANGED,
+        NOT_FOUND,
+        ALREADY_DELIVERED,
+        // The OrderStatus transition table does not allow from -> to (e.g. moving backwards)
+        NOT_ALLOWED,
+        // The order changed between validation and the UPDATE; nothing was written
+        CONFLICT
+    }
+}
@@ -0,0 +1,31 @@
+package dto;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import dbmodel.OrderStatus;
+import dbmodel.PaymentMode;
+
+// One message on the order SSE streams; previousStatus is null for PLACED
+public record OrderStreamEvent(String type,
+                               String orderId,
+                               String userEmail,
+                               OrderStatus status,
+                               OrderStatus previousStatus,
+                               PaymentMode paymentMode,
+                               BigDecimal finalAmount,
+                               Instant at) {
+
+    public static final String PLACED = "PLACED";
+    public static final String STATUS_CHANGED = "STATUS_CHANGED";
+
+    public static OrderStreamEvent of(OrderPlacedEvent e) {
+        return new OrderStreamEvent(PLACED, e.orderId(), e.userEmail(), e.status(), null,
+                e.paymentMode(), e.finalAmount(), e.orderedAt());
+    }
+
+    public static OrderStreamEvent of(OrderStatusChangedEvent e) {
+        return new OrderStreamEvent(STATUS_CHANGED, e.orderId(), e.userEmail(), e.to(), e.from(),
+                e.paymentMode(), e.finalAmount(), e.changedAt());
+    }
+}
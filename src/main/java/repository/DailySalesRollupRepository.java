@@ -0,0 +1,36 @@
+package repository;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import dbmodel.DailySalesRollup;
+import dbmodel.DailySalesRollupId;
+
+public interface DailySalesRollupRepository extends JpaRepository<DailySalesRollup, DailySalesRollupId> {
+
+    List<DailySalesRollup> findBySalesDateBetweenOrderBySalesDateAsc(LocalDate from, LocalDate to);
+
+    // Single-statement upsert so concurrent orders on the same day never lose an increment
+    @Modifying
+    @Query(value = "INSERT INTO daily_sales_rollup (sales_date, status, payment_mode, order_count, revenue) "
+                 + "VALUES (:salesDate, :status, :paymentMode, :orderCount, :revenue) "
+                 + "ON DUPLICATE KEY UPDATE order_count = order_count + VALUES(order_count), "
+                 + "revenue = revenue + VALUES(revenue)",
+           nativeQuery = true)
+    int increment(@Param("salesDate") LocalDate salesDate,
+                  @Param("status") String status,
+                  @Param("paymentMode") String paymentMode,
+                  @Param("orderCount") long orderCount,
+                  @Param("revenue") BigDecimal revenue);
+
+    // Inclusive on both ends: rollup rows are already whole local days
+    @Query("SELECT r.status AS status, SUM(r.orderCount) AS orderCount, COALESCE(SUM(r.revenue), 0) AS revenue "
+         + "FROM DailySalesRollup r WHERE r.salesDate >= :from AND r.salesDate <= :to GROUP BY r.status")
+    List<StatusAggregate> aggregateByStatus(@Param("from") LocalDate from, @Param("to") LocalDate to);
+}
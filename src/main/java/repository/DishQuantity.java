@@ -0,0 +1,13 @@
+package repository;
+
+import dbmodel.OrderStatus;
+
+// Quantity of one dish across all orders in one status, grouped in the database
+public interface DishQuantity {
+
+    String getFoodName();
+
+    OrderStatus getStatus();
+
+    long getQuantity();
+}
@@ -0,0 +1,27 @@
+package repository;
+
+import java.time.Instant;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import dbmodel.IdempotencyRecord;
+
+public interface IdempotencyRecordRepository extends JpaRepository<IdempotencyRecord, String> {
+
+    // Takes over a lapsed claim or an expired response in one statement; 0 rows means another claimer got there first
+    @Modifying
+    @Query("UPDATE IdempotencyRecord r SET r.requestHash = :requestHash, r.status = 0, r.contentType = NULL, "
+         + "r.body = NULL, r.createdAt = :now, r.expiresAt = :leaseUntil "
+         + "WHERE r.idempotencyKey = :key AND r.expiresAt <= :now")
+    int takeOverExpired(@Param("key") String key,
+                        @Param("requestHash") String requestHash,
+                        @Param("now") Instant now,
+                        @Param("leaseUntil") Instant leaseUntil);
+
+    @Modifying
+    @Query("DELETE FROM IdempotencyRecord r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
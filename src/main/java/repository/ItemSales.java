@@ -0,0 +1,15 @@
+package repository;
+
+import java.math.BigDecimal;
+
+// Per-dish totals grouped in the database
+public interface ItemSales {
+
+    String getFoodName();
+
+    long getQuantity();
+
+    BigDecimal getRevenue();
+
+    long getOrderCount();
+}
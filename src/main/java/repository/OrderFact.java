@@ -0,0 +1,21 @@
+package repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import dbmodel.OrderStatus;
+import dbmodel.PaymentMode;
+
+// Report-relevant columns of one order, read without hydrating Order or its items
+public interface OrderFact {
+
+    String getOrderId();
+
+    Instant getOrderedAt();
+
+    OrderStatus getStatus();
+
+    PaymentMode getPaymentMode();
+
+    BigDecimal getFinalAmount();
+}
@@ -1,10 +1,33 @@
 package repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
 import dbmodel.OrderItem;
+import dbmodel.OrderStatus;
 
 public interface OrderItemRepository extends JpaRepository<OrderItem, Long> {
 
     List<OrderItem> findByOrder_OrderId(String orderId);
+
+    // Items for a page of orders in one IN query, grouped by caller on orderId
+    @Query("SELECT i.order.orderId AS orderId, i.foodName AS foodName, i.quantity AS quantity, "
+         + "i.priceAtOrder AS priceAtOrder FROM OrderItem i WHERE i.order.orderId IN :orderIds ORDER BY i.id")
+    List<OrderItemRow> findRowsByOrderIds(@Param("orderIds") Collection<String> orderIds);
+
+    // Quantity, revenue and distinct orders per dish for orders placed in [from, to)
+    @Query("SELECT i.foodName AS foodName, SUM(i.quantity) AS quantity, "
+         + "COALESCE(SUM(i.priceAtOrder * i.quantity), 0) AS revenue, COUNT(DISTINCT o.orderId) AS orderCount "
+         + "FROM OrderItem i JOIN i.order o WHERE o.orderedAt >= :from AND o.orderedAt < :to "
+         + "GROUP BY i.foodName")
+    List<ItemSales> aggregateByFoodName(@Param("from") Instant from, @Param("to") Instant to);
+
+    // Open quantity per dish and status, for reconciling the kitchen prep counters
+    @Query("SELECT i.foodName AS foodName, o.status AS status, SUM(i.quantity) AS quantity "
+         + "FROM OrderItem i JOIN i.order o WHERE o.status IN :statuses GROUP BY i.foodName, o.status")
+    List<DishQuantity> sumQuantitiesByStatus(@Param("statuses") Collection<OrderStatus> statuses);
 }
@@ -0,0 +1,15 @@
+package repository;
+
+import java.math.BigDecimal;
+
+// One order line keyed by its order id, read without touching Order
+public interface OrderItemRow {
+
+    String getOrderId();
+
+    String getFoodName();
+
+    int getQuantity();
+
+    BigDecimal getPriceAtOrder();
+}
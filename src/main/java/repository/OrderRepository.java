@@ -1,17 +1,145 @@
 package repository;
 
+import java.time.Instant;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
+import java.util.stream.Stream;
 
+import org.hibernate.jpa.HibernateHints;
+
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import jakarta.persistence.QueryHint;
+
 import dbmodel.Order;
 import dbmodel.OrderStatus;
+import dbmodel.PaymentMode;
+import dto.OrderResponseDTO;
 
 public interface OrderRepository extends JpaRepository<Order, String> {
 
-    List<Order> findByUserEmailOrderByOrderedAtDesc(String userEmail);
-    List<Order> findByStatusOrderByOrderedAtAsc(OrderStatus status);
+    boolean existsByUserEmail(String userEmail);
+
+    // Read endpoints: response DTOs built from columns, no managed entities; items come from OrderItemRepository
+    String RESPONSE_COLUMNS = "SELECT new dto.OrderResponseDTO(o.orderId, o.userEmail, o.address, o.name, "
+            + "o.status, o.paymentMode, o.orderedAt, o.totalAmount, o.discount, o.gst, o.deliveryFee, "
+            + "o.finalAmount) FROM Order o ";
+
+    @Query(RESPONSE_COLUMNS + "WHERE o.userEmail = :email ORDER BY o.orderedAt DESC")
+    List<OrderResponseDTO> findResponsesByUserEmail(@Param("email") String email);
+
+    @Query(RESPONSE_COLUMNS + "ORDER BY o.orderedAt DESC")
+    List<OrderResponseDTO> findAllResponses();
+
+    @Query(RESPONSE_COLUMNS + "WHERE o.status IN :statuses ORDER BY o.orderedAt")
+    List<OrderResponseDTO> findResponsesByStatusIn(@Param("statuses") Collection<OrderStatus> statuses);
+
+    @Query(RESPONSE_COLUMNS + "WHERE o.orderId IN :orderIds")
+    List<OrderResponseDTO> findResponsesByOrderIdIn(@Param("orderIds") Collection<String> orderIds);
+
+    /*
+     * One keyset page of the admin listing, newest first: rows strictly after the cursor
+     * (cursorAt, cursorId) in (orderedAt DESC, orderId DESC) order. A null filter or cursor
+     * is not applied; rows without orderedAt cannot be ordered by key and are left out.
+     */
+    @Query(RESPONSE_COLUMNS + "WHERE o.orderedAt IS NOT NULL "
+         + "AND (:status IS NULL OR o.status = :status) "
+         + "AND (:paymentMode IS NULL OR o.paymentMode = :paymentMode) "
+         + "AND (:email IS NULL OR o.userEmail = :email) "
+         + "AND (:from IS NULL OR o.orderedAt >= :from) "
+         + "AND (:to IS NULL OR o.orderedAt < :to) "
+         + "AND (:cursorAt IS NULL OR o.orderedAt < :cursorAt "
+         + "     OR (o.orderedAt = :cursorAt AND o.orderId < :cursorId)) "
+         + "ORDER BY o.orderedAt DESC, o.orderId DESC")
+    List<OrderResponseDTO> findResponsesPage(@Param("status") OrderStatus status,
+                                             @Param("paymentMode") PaymentMode paymentMode,
+                                             @Param("email") String email,
+                                             @Param("from") Instant from,
+                                             @Param("to") Instant to,
+                                             @Param("cursorAt") Instant cursorAt,
+                                             @Param("cursorId") String cursorId,
+                                             Limit limit);
     Optional<Order> findByOrderId(String orderId);
 	List<Order> findByUserEmail(String email);
-	
+
+    // Per-status totals for a range; answered from idx_orders_ordered_at_id without loading entities
+    @Query("SELECT o.status AS status, COUNT(o) AS orderCount, COALESCE(SUM(o.finalAmount), 0) AS revenue "
+         + "FROM Order o WHERE o.orderedAt >= :from AND o.orderedAt < :to GROUP BY o.status")
+    List<StatusAggregate> aggregateByStatus(@Param("from") Instant from, @Param("to") Instant to);
+
+    // Forward-only scans for rollup rebuilds and checks; must be consumed inside a transaction
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT o.orderId AS orderId, o.orderedAt AS orderedAt, o.status AS status, "
+         + "o.paymentMode AS paymentMode, o.finalAmount AS finalAmount "
+         + "FROM Order o WHERE o.orderedAt IS NOT NULL ORDER BY o.orderedAt")
+    Stream<OrderFact> streamAllFacts();
+
+    @Query("SELECT o.orderId AS orderId, o.orderedAt AS orderedAt, o.status AS status, "
+         + "o.paymentMode AS paymentMode, o.finalAmount AS finalAmount, o.userEmail AS userEmail, "
+         + "o.statusChangedAt AS statusChangedAt, o.version AS version FROM Order o WHERE o.orderId IN :orderIds")
+    List<OrderStatusRow> findStatusRows(@Param("orderIds") Collection<String> orderIds);
+
+    // Compare-and-set: 0 rows when another update got there first, so the caller never waits on or overwrites it
+    @Modifying
+    @Query("UPDATE Order o SET o.status = :to, o.statusChangedAt = :changedAt, o.version = o.version + 1 "
+         + "WHERE o.orderId = :orderId AND o.status = :from AND o.version = :version")
+    int compareAndSetStatus(@Param("orderId") String orderId,
+                            @Param("from") OrderStatus from,
+                            @Param("version") long version,
+                            @Param("to") OrderStatus to,
+                            @Param("changedAt") Instant changedAt);
+
+    // Invoice claims: one sender per DELIVERED order at a time; a claim from before staleBefore was abandoned
+    @Modifying
+    @Query("UPDATE Order o SET o.invoiceClaimedAt = :claimedAt "
+         + "WHERE o.orderId = :orderId AND o.status = dbmodel.OrderStatus.DELIVERED AND o.invoiceSentAt IS NULL "
+         + "AND (o.invoiceClaimedAt IS NULL OR o.invoiceClaimedAt < :staleBefore)")
+    int claimInvoice(@Param("orderId") String orderId,
+                     @Param("claimedAt") Instant claimedAt,
+                     @Param("staleBefore") Instant staleBefore);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.invoiceSentAt = :sentAt WHERE o.orderId = :orderId AND o.invoiceClaimedAt = :claimedAt")
+    int markInvoiceSent(@Param("orderId") String orderId,
+                        @Param("claimedAt") Instant claimedAt,
+                        @Param("sentAt") Instant sentAt);
+
+    @Modifying
+    @Query("UPDATE Order o SET o.invoiceClaimedAt = NULL "
+         + "WHERE o.orderId = :orderId AND o.invoiceClaimedAt = :claimedAt AND o.invoiceSentAt IS NULL")
+    int releaseInvoice(@Param("orderId") String orderId, @Param("claimedAt") Instant claimedAt);
+
+    // DELIVERED orders in [since, settledBefore) whose invoice is neither sent nor held by a live claim
+    @Query("SELECT o.orderId FROM Order o WHERE o.status = dbmodel.OrderStatus.DELIVERED "
+         + "AND o.statusChangedAt >= :since AND o.statusChangedAt < :settledBefore AND o.invoiceSentAt IS NULL "
+         + "AND (o.invoiceClaimedAt IS NULL OR o.invoiceClaimedAt < :staleBefore) ORDER BY o.statusChangedAt")
+    List<String> findUnsentInvoices(@Param("since") Instant since,
+                                    @Param("settledBefore") Instant settledBefore,
+                                    @Param("staleBefore") Instant staleBefore,
+                                    Limit limit);
+
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT o.orderId AS orderId, o.orderedAt AS orderedAt, o.status AS status, "
+         + "o.paymentMode AS paymentMode, o.finalAmount AS finalAmount "
+         + "FROM Order o WHERE o.orderedAt >= :from AND o.orderedAt < :to ORDER BY o.orderedAt")
+    Stream<OrderFact> streamFactsBetween(@Param("from") Instant from, @Param("to") Instant to);
+
+    // Keyset page of order rows in (orderedAt, orderId) order, strictly after the given position
+    @Query("SELECT o.orderId AS orderId, o.orderedAt AS orderedAt, o.userEmail AS userEmail, o.name AS name, "
+         + "o.status AS status, o.paymentMode AS paymentMode, o.totalAmount AS totalAmount, "
+         + "o.discount AS discount, o.gst AS gst, o.deliveryFee AS deliveryFee, o.finalAmount AS finalAmount "
+         + "FROM Order o WHERE o.orderedAt >= :from AND o.orderedAt < :to "
+         + "AND (o.orderedAt > :afterAt OR (o.orderedAt = :afterAt AND o.orderId > :afterId)) "
+         + "ORDER BY o.orderedAt, o.orderId")
+    List<OrderRow> findRowsAfter(@Param("from") Instant from,
+                                 @Param("to") Instant to,
+                                 @Param("afterAt") Instant afterAt,
+                                 @Param("afterId") String afterId,
+                                 Limit limit);
 }
@@ -0,0 +1,33 @@
+package repository;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import dbmodel.OrderStatus;
+import dbmodel.PaymentMode;
+
+// Column-level view of one order (no items) for itemized reports and listings
+public interface OrderRow {
+
+    String getOrderId();
+
+    Instant getOrderedAt();
+
+    String getUserEmail();
+
+    String getName();
+
+    OrderStatus getStatus();
+
+    PaymentMode getPaymentMode();
+
+    BigDecimal getTotalAmount();
+
+    BigDecimal getDiscount();
+
+    BigDecimal getGst();
+
+    BigDecimal getDeliveryFee();
+
+    BigDecimal getFinalAmount();
+}
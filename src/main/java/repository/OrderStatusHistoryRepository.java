@@ -0,0 +1,27 @@
+package repository;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.hibernate.jpa.HibernateHints;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.jpa.repository.QueryHints;
+import org.springframework.data.repository.query.Param;
+
+import dbmodel.OrderStatusHistory;
+import jakarta.persistence.QueryHint;
+
+public interface OrderStatusHistoryRepository extends JpaRepository<OrderStatusHistory, Long> {
+
+    List<OrderStatusHistory> findByOrderIdOrderByChangedAtAsc(String orderId);
+
+    // Transitions (not placements) recorded in [from, to)
+    @QueryHints(@QueryHint(name = HibernateHints.HINT_FETCH_SIZE, value = "500"))
+    @Query("SELECT h.fromStatus AS fromStatus, h.toStatus AS toStatus, h.changedAt AS changedAt, "
+         + "h.durationMs AS durationMs, o.orderedAt AS orderedAt "
+         + "FROM OrderStatusHistory h JOIN Order o ON o.orderId = h.orderId "
+         + "WHERE h.fromStatus IS NOT NULL AND h.changedAt >= :from AND h.changedAt < :to")
+    Stream<StatusTransitionRow> streamTransitionsBetween(@Param("from") Instant from, @Param("to") Instant to);
+}
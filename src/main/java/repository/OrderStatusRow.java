@@ -0,0 +1,13 @@
+package repository;
+
+import java.time.Instant;
+
+// What a status change needs to know about an order: its current status plus the event fields
+public interface OrderStatusRow extends OrderFact {
+
+    String getUserEmail();
+
+    Instant getStatusChangedAt();
+
+    long getVersion();
+}
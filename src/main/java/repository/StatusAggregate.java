@@ -0,0 +1,15 @@
+package repository;
+
+import java.math.BigDecimal;
+
+import dbmodel.OrderStatus;
+
+// Scalar row returned by the grouped report queries: no entity, no items
+public interface StatusAggregate {
+
+    OrderStatus getStatus();
+
+    long getOrderCount();
+
+    BigDecimal getRevenue();
+}
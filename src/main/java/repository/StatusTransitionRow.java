@@ -0,0 +1,19 @@
+package repository;
+
+import java.time.Instant;
+
+import dbmodel.OrderStatus;
+
+// One recorded transition with the order's placement time, for fulfilment latency reports
+public interface StatusTransitionRow {
+
+    OrderStatus getFromStatus();
+
+    OrderStatus getToStatus();
+
+    Instant getChangedAt();
+
+    Long getDurationMs();
+
+    Instant getOrderedAt();
+}
@@ -0,0 +1,178 @@
+package services;
+
+import java.sql.Statement;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import dbmodel.OrderStatus;
+import dto.OrderStatusChangedEvent;
+import dto.OrderStatusUpdateResult;
+import dto.OrderStatusUpdateResult.Outcome;
+import repository.OrderRepository;
+import repository.OrderStatusRow;
+
+/**
+ * Moves many orders to one status in a single transaction: one SELECT reads the
+ * current status of every order, one batched compare-and-set UPDATE writes the
+ * changes the OrderStatus transition table allows, and rollups are adjusted per
+ * (day, status, payment mode) rather than per order.
+ * Invoices for DELIVERED orders go out after commit through InvoiceDispatcher.
+ */
+@Service
+public class BulkOrderStatusService {
+
+    public static final int MAX_ORDERS = 500;
+
+    // Compare-and-set on the status and version read earlier, so a concurrent change makes the row miss instead of being overwritten
+    private static final String UPDATE_SQL = "UPDATE orders SET status = ?, status_changed_at = ?, version = version + 1 "
+                                           + "WHERE order_ID = ? AND status = ? AND version = ?";
+
+    private final OrderRepository orderRepo;
+    private final JdbcTemplate jdbcTemplate;
+    private final SalesRollupService rollupService;
+    private final ApplicationEventPublisher events;
+
+    public BulkOrderStatusService(OrderRepository orderRepo,
+                                  JdbcTemplate jdbcTemplate,
+                                  SalesRollupService rollupService,
+                                  ApplicationEventPublisher events) {
+        this.orderRepo = orderRepo;
+        this.jdbcTemplate = jdbcTemplate;
+        this.rollupService = rollupService;
+        this.events = events;
+    }
+
+    /**
+     * @return one result per distinct order id, in request order
+     * @throws IllegalArgumentException on an unknown status, no ids, or more than MAX_ORDERS ids
+     */
+    @Transactional
+    public List<OrderStatusUpdateResult> updateStatuses(List<String> orderIds, String status) {
+        OrderStatus target = parseStatus(status);
+        Set<String> ids = new LinkedHashSet<>();
+        if (orderIds != null) {
+            for (String id : orderIds) {
+                if (id != null && !id.isBlank()) ids.add(id.trim());
+            }
+        }
+        if (ids.isEmpty()) throw new IllegalArgumentException("orderIds is required");
+        if (ids.size() > MAX_ORDERS) {
+            throw new IllegalArgumentException("At most " + MAX_ORDERS + " orders per request");
+        }
+
+        Map<String, OrderStatusRow> current = new LinkedHashMap<>();
+        for (OrderStatusRow row : orderRepo.findStatusRows(ids)) {
+            current.put(row.getOrderId(), row);
+        }
+
+        Map<String, OrderStatusUpdateResult> results = new LinkedHashMap<>();
+        List<OrderStatusRow> changing = new ArrayList<>();
+        for (String id : ids) {
+            OrderStatusRow row = current.get(id);
+            if (row == null) {
+                results.put(id, new OrderStatusUpdateResult(id, Outcome.NOT_FOUND, null, target));
+            } else if (row.getStatus() == OrderStatus.DELIVERED) {
+                results.put(id, new OrderStatusUpdateResult(id, Outcome.ALREADY_DELIVERED, row.getStatus(), target));
+            } else if (row.getStatus() == target) {
+                results.put(id, new OrderStatusUpdateResult(id, Outcome.UNCHANGED, row.getStatus(), target));
+            } else if (!row.getStatus().canMoveTo(target)) {
+                results.put(id, new OrderStatusUpdateResult(id, Outcome.NOT_ALLOWED, row.getStatus(), target));
+            } else {
+                results.put(id, null);
+                changing.add(row);
+            }
+        }
+
+        if (!changing.isEmpty()) {
+            Instant now = Instant.now();
+            int[][] counts = jdbcTemplate.batchUpdate(UPDATE_SQL, changing, changing.size(), (ps, row) -> {
+                ps.setString(1, target.name());
+                ps.setTimestamp(2, Timestamp.from(now));
+                ps.setString(3, row.getOrderId());
+                ps.setString(4, row.getStatus().name());
+                ps.setLong(5, row.getVersion());
+            });
+
+            boolean[] updated = updatedRows(counts, changing, target);
+            List<OrderStatusChangedEvent> changes = new ArrayList<>(changing.size());
+            for (int i = 0; i < changing.size(); i++) {
+                OrderStatusRow row = changing.get(i);
+                if (!updated[i]) {
+                    results.put(row.getOrderId(),
+                            new OrderStatusUpdateResult(row.getOrderId(), Outcome.CONFLICT, row.getStatus(), target));
+                    continue;
+                }
+                results.put(row.getOrderId(),
+                        new OrderStatusUpdateResult(row.getOrderId(), Outcome.UPDATED, row.getStatus(), target));
+                changes.add(new OrderStatusChangedEvent(row.getOrderId(), row.getUserEmail(), row.getOrderedAt(),
+                        row.getPaymentMode(), row.getFinalAmount(), row.getStatus(), target, now,
+                        row.getStatusChangedAt()));
+            }
+
+            rollupService.recordStatusChanges(changes);
+            changes.forEach(events::publishEvent);
+        }
+
+        return new ArrayList<>(results.values());
+    }
+
+    /**
+     * A positive count is an update and 0 means the compare-and-set missed. Drivers that cannot
+     * report per-row counts return SUCCESS_NO_INFO; those rows are re-read and count as updated
+     * only if they now hold the target status at the next version.
+     *
+     * @throws IllegalStateException on any other count, which rolls the whole update back
+     */
+    private boolean[] updatedRows(int[][] counts, List<OrderStatusRow> changing, OrderStatus target) {
+        boolean[] updated = new boolean[changing.size()];
+        Set<String> unknown = new LinkedHashSet<>();
+        int i = 0;
+        for (int[] batch : counts) {
+            for (int count : batch) {
+                if (count == Statement.SUCCESS_NO_INFO) {
+                    unknown.add(changing.get(i).getOrderId());
+                } else if (count < 0) {
+                    throw new IllegalStateException("Unexpected update count " + count + " for order "
+                            + changing.get(i).getOrderId());
+                } else {
+                    updated[i] = count > 0;
+                }
+                i++;
+            }
+        }
+        if (unknown.isEmpty()) return updated;
+
+        Map<String, OrderStatusRow> after = new LinkedHashMap<>();
+        for (OrderStatusRow row : orderRepo.findStatusRows(unknown)) {
+            after.put(row.getOrderId(), row);
+        }
+        for (int j = 0; j < changing.size(); j++) {
+            OrderStatusRow before = changing.get(j);
+            OrderStatusRow current = after.get(before.getOrderId());
+            if (unknown.contains(before.getOrderId())) {
+                updated[j] = current != null && current.getStatus() == target
+                        && current.getVersion() == before.getVersion() + 1;
+            }
+        }
+        return updated;
+    }
+
+    private static OrderStatus parseStatus(String status) {
+        try {
+            return OrderStatus.valueOf(String.valueOf(status).toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid status. Allowed values: ORDERED, PREPARING, OUT_FOR_DELIVERY, DELIVERED");
+        }
+    }
+}
@@ -1,7 +1,6 @@
 package services;
 
 import dbmodel.Coupon;
-import dbmodel.Order;
 import repository.CouponRepository;
 import repository.OrderRepository;
 import org.springframework.beans.factory.annotation.Autowired;
@@ -50,8 +49,7 @@ public class CouponService {
         }
         
         if (coupon.isFirstTimeUserOnly()) {
-            List<Order> userOrders = orderRepository.findByUserEmailOrderByOrderedAtDesc(userEmail);
-            if (!userOrders.isEmpty()) {
+            if (orderRepository.existsByUserEmail(userEmail)) {
                 return "This coupon is valid only for first-time users";
             }
         }
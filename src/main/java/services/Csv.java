@@ -0,0 +1,20 @@
+package services;
+
+/** RFC 4180 field quoting shared by every CSV this service writes. */
+public final class Csv {
+
+    private Csv() {
+    }
+
+    /** The value as one CSV field: empty for null, quoted when it holds a comma, quote, CR or LF. */
+    public static String field(String value) {
+        if (value == null) return "";
+        for (int i = 0; i < value.length(); i++) {
+            char c = value.charAt(i);
+            if (c == ',' || c == '"' || c == '\n' || c == '\r') {
+                return "\"" + value.replace("\"", "\"\"") + "\"";
+            }
+        }
+        return value;
+    }
+}
@@ -0,0 +1,217 @@
+package services;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.stream.Stream;
+
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import dbmodel.OrderStatus;
+import dbmodel.OrderStatusHistory;
+import dto.OrderPlacedEvent;
+import dto.OrderStatusChangedEvent;
+import repository.OrderStatusHistoryRepository;
+import repository.StatusTransitionRow;
+
+/**
+ * Time spent between order statuses (ORDERED -> PREPARING -> OUT_FOR_DELIVERY ->
+ * DELIVERED), plus placement-to-delivery as PLACED->DELIVERED.
+ *
+ * Every placement and transition appends an order_status_history row inside the
+ * transaction that made it; the inserts use pooled ids, so a bulk status update
+ * flushes them as JDBC batches at commit. Committed transitions also feed
+ * in-memory histograms kept per minute for the last hour, which answer "how slow
+ * is the kitchen right now" over 5 / 15 / 60 minute windows. Per-day percentiles
+ * for past days are computed from the history table.
+ */
+@Service
+public class FulfilmentLatencyService {
+
+    public static final String FULFILMENT = "PLACED->DELIVERED";
+
+    private static final int[] WINDOW_MINUTES = { 5, 15, 60 };
+    private static final int SLOTS = 60;
+    private static final long MINUTE_MS = 60_000L;
+
+    // About a quarter; rows are streamed, but every day in the range keeps its own histograms
+    private static final int MAX_REPORT_DAYS = 93;
+
+    private final OrderStatusHistoryRepository historyRepo;
+    private final ZoneId zone;
+
+    private final Map<String, Window> windows = new ConcurrentHashMap<>();
+
+    public FulfilmentLatencyService(OrderStatusHistoryRepository historyRepo, ZoneId reportZone) {
+        this.historyRepo = historyRepo;
+        this.zone = reportZone;
+    }
+
+    // --------------------------------------------------------------------
+    // HISTORY (joins the publishing transaction)
+    // --------------------------------------------------------------------
+    @EventListener
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        historyRepo.save(new OrderStatusHistory(event.orderId(), null, event.status(), event.orderedAt(), null));
+    }
+
+    @EventListener
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        historyRepo.save(new OrderStatusHistory(event.orderId(), event.from(), event.to(), event.changedAt(),
+                durationMs(event)));
+    }
+
+    // Orders placed before status_changed_at existed have no entry time unless they are still ORDERED
+    private static Long durationMs(OrderStatusChangedEvent event) {
+        Instant since = event.fromSince();
+        if (since == null && event.from() == OrderStatus.ORDERED) since = event.orderedAt();
+        if (since == null || event.changedAt() == null) return null;
+        return Math.max(0, event.changedAt().toEpochMilli() - since.toEpochMilli());
+    }
+
+    // --------------------------------------------------------------------
+    // LIVE WINDOWS (after commit)
+    // --------------------------------------------------------------------
+    @TransactionalEventListener
+    public void onStatusCommitted(OrderStatusChangedEvent event) {
+        if (event.from() == event.to()) return;
+        long now = event.changedAt() == null ? System.currentTimeMillis() : event.changedAt().toEpochMilli();
+
+        Long duration = durationMs(event);
+        if (duration != null) record(event.from() + "->" + event.to(), now, duration);
+        if (event.to() == OrderStatus.DELIVERED && event.orderedAt() != null) {
+            record(FULFILMENT, now, Math.max(0, now - event.orderedAt().toEpochMilli()));
+        }
+    }
+
+    private void record(String transition, long atMillis, long durationMs) {
+        windows.computeIfAbsent(transition, k -> new Window()).record(atMillis / MINUTE_MS, durationMs);
+    }
+
+    /** Per transition: count, p50 / p90 / p99 and max (ms) over the last 5, 15 and 60 minutes. */
+    public Map<String, Object> live() {
+        long nowMillis = System.currentTimeMillis();
+        long minute = nowMillis / MINUTE_MS;
+        Map<String, Object> transitions = new TreeMap<>();
+        windows.forEach((transition, window) -> {
+            Map<String, Object> byWindow = new LinkedHashMap<>();
+            for (int minutes : WINDOW_MINUTES) {
+                byWindow.put(minutes + "m", summary(window.merged(minute, minutes)));
+            }
+            transitions.put(transition, byWindow);
+        });
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("at", Instant.ofEpochMilli(nowMillis).toString());
+        result.put("transitions", transitions);
+        return result;
+    }
+
+    // One histogram per minute of the last hour; a slot is cleared when its minute comes round again
+    private static final class Window {
+        private final LatencyHistogram[] slots = new LatencyHistogram[SLOTS];
+        private final long[] slotMinute = new long[SLOTS];
+
+        Window() {
+            for (int i = 0; i < SLOTS; i++) {
+                slots[i] = new LatencyHistogram();
+                slotMinute[i] = -1;
+            }
+        }
+
+        synchronized void record(long minute, long durationMs) {
+            int i = (int) (minute % SLOTS);
+            if (slotMinute[i] != minute) {
+                // A late event for a minute already rotated out is dropped rather than counted as current
+                if (slotMinute[i] > minute) return;
+                slots[i].reset();
+                slotMinute[i] = minute;
+            }
+            slots[i].record(durationMs);
+        }
+
+        synchronized LatencyHistogram merged(long nowMinute, int minutes) {
+            LatencyHistogram merged = new LatencyHistogram();
+            for (int i = 0; i < SLOTS; i++) {
+                long age = nowMinute - slotMinute[i];
+                if (slotMinute[i] >= 0 && age >= 0 && age < minutes) merged.add(slots[i]);
+            }
+            return merged;
+        }
+    }
+
+    // --------------------------------------------------------------------
+    // DAILY REPORT (from order_status_history)
+    // --------------------------------------------------------------------
+    /**
+     * Percentiles per local day (report zone) and transition, by the day the transition happened.
+     *
+     * @throws IllegalArgumentException if to is before from or the range exceeds MAX_REPORT_DAYS
+     */
+    @Transactional(readOnly = true)
+    public Map<String, Object> dailyReport(LocalDate from, LocalDate to) {
+        if (to.isBefore(from)) throw new IllegalArgumentException("'to' must not be before 'from'");
+        if (ChronoUnit.DAYS.between(from, to) >= MAX_REPORT_DAYS) {
+            throw new IllegalArgumentException("At most " + MAX_REPORT_DAYS + " days per fulfilment report");
+        }
+        Instant start = from.atStartOfDay(zone).toInstant();
+        Instant end = to.plusDays(1).atStartOfDay(zone).toInstant();
+
+        Map<LocalDate, Map<String, LatencyHistogram>> byDay = new TreeMap<>();
+        try (Stream<StatusTransitionRow> rows = historyRepo.streamTransitionsBetween(start, end)) {
+            rows.forEach(row -> {
+                Map<String, LatencyHistogram> day = byDay.computeIfAbsent(
+                        row.getChangedAt().atZone(zone).toLocalDate(), k -> new TreeMap<>());
+                Long duration = row.getDurationMs();
+                if (duration == null && row.getFromStatus() == OrderStatus.ORDERED && row.getOrderedAt() != null) {
+                    duration = row.getChangedAt().toEpochMilli() - row.getOrderedAt().toEpochMilli();
+                }
+                if (duration != null) {
+                    day.computeIfAbsent(row.getFromStatus() + "->" + row.getToStatus(), k -> new LatencyHistogram())
+                            .record(duration);
+                }
+                if (row.getToStatus() == OrderStatus.DELIVERED && row.getOrderedAt() != null) {
+                    day.computeIfAbsent(FULFILMENT, k -> new LatencyHistogram())
+                            .record(row.getChangedAt().toEpochMilli() - row.getOrderedAt().toEpochMilli());
+                }
+            });
+        }
+
+        List<Map<String, Object>> days = new ArrayList<>(byDay.size());
+        byDay.forEach((date, transitions) -> {
+            Map<String, Object> summaries = new LinkedHashMap<>();
+            transitions.forEach((transition, histogram) -> summaries.put(transition, summary(histogram)));
+            Map<String, Object> day = new LinkedHashMap<>();
+            day.put("date", date.toString());
+            day.put("transitions", summaries);
+            days.add(day);
+        });
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", from.toString());
+        result.put("to", to.toString());
+        result.put("zone", zone.getId());
+        result.put("days", days);
+        return result;
+    }
+
+    private static Map<String, Object> summary(LatencyHistogram histogram) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("count", histogram.count());
+        m.put("p50Ms", histogram.percentile(50));
+        m.put("p90Ms", histogram.percentile(90));
+        m.put("p99Ms", histogram.percentile(99));
+        m.put("maxMs", histogram.max());
+        return m;
+    }
+}
@@ -0,0 +1,327 @@
+package services;
+
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.HexFormat;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+import java.util.function.Supplier;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import dbmodel.IdempotencyRecord;
+import repository.IdempotencyRecordRepository;
+
+/**
+ * Runs a request at most once per Idempotency-Key and replays the stored response
+ * bytes for every retry.
+ *
+ * Finished responses sit in a bounded LRU with a TTL, backed by the
+ * idempotency_keys table so they survive restarts and are shared between
+ * instances. A key is claimed by inserting its row before the request runs (an
+ * expired row is taken over with a conditional UPDATE instead):
+ * duplicates in this JVM wait on the first caller's future, and duplicates on
+ * another instance poll the row until it is finished. Server errors are not
+ * stored, so the client's next retry runs the request again.
+ *
+ * The request runs in a transaction that also writes its response to the claimed
+ * row, so an order and its stored response commit or roll back together: a
+ * response that cannot be stored fails the request instead of answering 2xx.
+ */
+@Service
+public class IdempotencyService {
+
+    private static final Logger log = LoggerFactory.getLogger(IdempotencyService.class);
+
+    public static final int MAX_KEY_LENGTH = 100;
+
+    // A claim whose request never finished (e.g. the instance died) is freed after this
+    private static final Duration CLAIM_LEASE = Duration.ofMinutes(5);
+    private static final long POLL_MILLIS = 100;
+
+    public record StoredResponse(int status, String contentType, byte[] body) {}
+
+    /** The key was already used with a different request body. */
+    public static class KeyReuseException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public KeyReuseException() {
+            super("Idempotency-Key was already used with a different request");
+        }
+    }
+
+    /** The first request with this key is still running after the wait limit. */
+    public static class InProgressException extends RuntimeException {
+        private static final long serialVersionUID = 1L;
+
+        public InProgressException() {
+            super("A request with this Idempotency-Key is still being processed");
+        }
+    }
+
+    private record Entry(String requestHash, StoredResponse response, Instant expiresAt) {}
+
+    private record Outcome(StoredResponse response, boolean stored) {}
+
+    private final IdempotencyRecordRepository recordRepo;
+    private final TransactionTemplate newTx;
+    private final TransactionTemplate requestTx;
+    private final Duration ttl;
+    private final long waitMillis;
+    private final int maxEntries;
+
+    private final Map<String, Entry> finished;
+    private final Map<String, CompletableFuture<Entry>> inFlight = new ConcurrentHashMap<>();
+
+    public IdempotencyService(IdempotencyRecordRepository recordRepo,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.idempotency.ttl-minutes:1440}") long ttlMinutes,
+                              @Value("${app.idempotency.wait-ms:10000}") long waitMillis,
+                              @Value("${app.idempotency.max-entries:10000}") int maxEntries) {
+        this.recordRepo = recordRepo;
+        this.newTx = new TransactionTemplate(transactionManager);
+        this.newTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.requestTx = new TransactionTemplate(transactionManager);
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        this.waitMillis = waitMillis;
+        this.maxEntries = maxEntries;
+        this.finished = new LinkedHashMap<>(256, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<String, Entry> eldest) {
+                return size() > IdempotencyService.this.maxEntries;
+            }
+        };
+    }
+
+    /**
+     * Returns the stored response for key, or runs action once and stores what it returns.
+     *
+     * @throws KeyReuseException if key was first used with a different request body
+     * @throws InProgressException if the first request is still running after app.idempotency.wait-ms
+     */
+    public StoredResponse execute(String key, byte[] requestBody, Supplier<StoredResponse> action) {
+        String requestHash = sha256(requestBody);
+        long deadline = System.currentTimeMillis() + waitMillis;
+
+        while (true) {
+            Entry cached = remembered(key);
+            if (cached != null) return replay(cached, requestHash);
+
+            CompletableFuture<Entry> mine = new CompletableFuture<>();
+            CompletableFuture<Entry> running = inFlight.putIfAbsent(key, mine);
+            if (running == null) {
+                try {
+                    return lead(key, requestHash, action, mine, deadline);
+                } finally {
+                    inFlight.remove(key, mine);
+                }
+            }
+
+            // Single-flight: wait for the caller already running this key
+            try {
+                Entry entry = running.get(Math.max(1, deadline - System.currentTimeMillis()), TimeUnit.MILLISECONDS);
+                return replay(entry, requestHash);
+            } catch (TimeoutException e) {
+                throw new InProgressException();
+            } catch (ExecutionException e) {
+                // The first caller failed and stored nothing; take over on the next pass
+                if (e.getCause() instanceof KeyReuseException || e.getCause() instanceof InProgressException) {
+                    throw (RuntimeException) e.getCause();
+                }
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new InProgressException();
+            }
+        }
+    }
+
+    private StoredResponse lead(String key, String requestHash, Supplier<StoredResponse> action,
+                                CompletableFuture<Entry> mine, long deadline) {
+        try {
+            Entry stored = claimOrAwait(key, requestHash, deadline);
+            if (stored != null) {
+                remember(key, stored);
+                mine.complete(stored);
+                return replay(stored, requestHash);
+            }
+
+            Outcome outcome;
+            try {
+                outcome = requestTx.execute(tx -> {
+                    StoredResponse response = action.get();
+                    if (response.status() >= 500) return new Outcome(response, false);
+                    if (tx.isRollbackOnly()) {
+                        // The action failed and undid its own writes (e.g. out of stock); roll back quietly
+                        tx.setRollbackOnly();
+                        return new Outcome(response, false);
+                    }
+                    // Commits with whatever the action wrote, or throws and takes it all back
+                    store(key, new Entry(requestHash, response, Instant.now().plus(ttl)));
+                    return new Outcome(response, true);
+                });
+            } catch (RuntimeException e) {
+                release(key);
+                throw e;
+            }
+
+            StoredResponse response = outcome.response();
+            if (response.status() >= 500) {
+                release(key);
+                mine.completeExceptionally(new IllegalStateException("not stored"));
+                return response;
+            }
+            Entry entry = new Entry(requestHash, response, Instant.now().plus(ttl));
+            // Nothing was written, so losing this copy only means a retry runs the request again
+            if (!outcome.stored()) complete(key, entry);
+            remember(key, entry);
+            mine.complete(entry);
+            return response;
+        } catch (RuntimeException e) {
+            mine.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    private static StoredResponse replay(Entry entry, String requestHash) {
+        if (!entry.requestHash().equals(requestHash)) throw new KeyReuseException();
+        return entry.response();
+    }
+
+    // --------------------------------------------------------------------
+    // DATABASE CLAIMS (each in its own short transaction)
+    // --------------------------------------------------------------------
+    /** Returns null once this caller owns the key, or the finished entry another caller stored. */
+    private Entry claimOrAwait(String key, String requestHash, long deadline) {
+        while (true) {
+            IdempotencyRecord existing = newTx.execute(tx -> recordRepo.findById(key).orElse(null));
+            Instant now = Instant.now();
+
+            if (existing != null && existing.getStatus() != IdempotencyRecord.IN_PROGRESS
+                    && existing.getExpiresAt().isAfter(now)) {
+                return new Entry(existing.getRequestHash(), new StoredResponse(existing.getStatus(),
+                        existing.getContentType(), existing.getBody()), existing.getExpiresAt());
+            }
+            if (existing != null && existing.getStatus() == IdempotencyRecord.IN_PROGRESS
+                    && existing.getExpiresAt().isAfter(now)) {
+                // Another instance is running it
+                if (!existing.getRequestHash().equals(requestHash)) throw new KeyReuseException();
+                if (System.currentTimeMillis() >= deadline) throw new InProgressException();
+                sleep();
+                continue;
+            }
+
+            if (existing != null) {
+                // Conditional, so of two instances that read the same expired row only one takes it over
+                Integer taken = newTx.execute(tx -> recordRepo.takeOverExpired(key, requestHash, now,
+                        now.plus(CLAIM_LEASE)));
+                if (taken != null && taken > 0) return null;
+                continue;
+            }
+            try {
+                newTx.executeWithoutResult(tx ->
+                        recordRepo.saveAndFlush(new IdempotencyRecord(key, requestHash, now, now.plus(CLAIM_LEASE))));
+                return null;
+            } catch (DataIntegrityViolationException e) {
+                // Lost the insert race to another instance; read its row on the next pass
+            }
+        }
+    }
+
+    // Joins the request transaction
+    private void store(String key, Entry entry) {
+        fill(recordRepo.findById(key)
+                .orElseThrow(() -> new IllegalStateException("Idempotency claim for " + key + " was lost")), entry);
+    }
+
+    // For responses whose request wrote nothing
+    private void complete(String key, Entry entry) {
+        try {
+            newTx.executeWithoutResult(tx -> recordRepo.findById(key).ifPresent(record -> fill(record, entry)));
+        } catch (RuntimeException e) {
+            // The memory copy still answers retries here; other instances wait for the lease to lapse
+            log.error("[IDEMPOTENCY] Could not store response for {}: {}", key, e.getMessage());
+        }
+    }
+
+    private static void fill(IdempotencyRecord record, Entry entry) {
+        record.setStatus(entry.response().status());
+        record.setContentType(entry.response().contentType());
+        record.setBody(entry.response().body());
+        record.setExpiresAt(entry.expiresAt());
+    }
+
+    private void release(String key) {
+        try {
+            newTx.executeWithoutResult(tx -> recordRepo.deleteById(key));
+        } catch (RuntimeException e) {
+            log.warn("[IDEMPOTENCY] Could not release {}: {}", key, e.getMessage());
+        }
+    }
+
+    private static void sleep() {
+        try {
+            Thread.sleep(POLL_MILLIS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InProgressException();
+        }
+    }
+
+    // --------------------------------------------------------------------
+    // MEMORY STORE
+    // --------------------------------------------------------------------
+    private Entry remembered(String key) {
+        synchronized (finished) {
+            Entry entry = finished.get(key);
+            if (entry == null) return null;
+            if (entry.expiresAt().isBefore(Instant.now())) {
+                finished.remove(key);
+                return null;
+            }
+            return entry;
+        }
+    }
+
+    private void remember(String key, Entry entry) {
+        synchronized (finished) {
+            finished.put(key, entry);
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${app.idempotency.cleanup-interval-ms:600000}")
+    public void evictExpired() {
+        Instant now = Instant.now();
+        synchronized (finished) {
+            finished.values().removeIf(entry -> entry.expiresAt().isBefore(now));
+        }
+        Integer deleted = newTx.execute(tx -> recordRepo.deleteExpired(now));
+        if (deleted != null && deleted > 0) {
+            log.info("[IDEMPOTENCY] Removed {} expired keys", deleted);
+        }
+    }
+
+    private static String sha256(byte[] bytes) {
+        try {
+            return HexFormat.of().formatHex(MessageDigest.getInstance("SHA-256").digest(bytes));
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException(e);
+        }
+    }
+}
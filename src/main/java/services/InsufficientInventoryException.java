@@ -0,0 +1,18 @@
+package services;
+
+// Thrown when a cart line asks for more stock than is left; rolls back the whole order
+public class InsufficientInventoryException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    private final String foodName;
+
+    public InsufficientInventoryException(String foodName) {
+        super("Insufficient inventory for item: " + foodName);
+        this.foodName = foodName;
+    }
+
+    public String getFoodName() {
+        return foodName;
+    }
+}
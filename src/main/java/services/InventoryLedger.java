@@ -0,0 +1,284 @@
+package services;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.SortedMap;
+import java.util.TreeSet;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * In-memory stock counters so orders for the same dish do not queue on its
+ * food_items row lock.
+ *
+ * Each dish has an available count, taken with a CAS loop, and a net delta that
+ * has not been written back yet. A scheduled flusher drains the deltas into one
+ * batched UPDATE, and the counters are reloaded from food_items at startup.
+ * Unflushed deltas are lost if the process dies, so keep the interval short, and
+ * run one instance only: the counters are not shared between JVMs. Off by default
+ * (app.inventory.ledger.enabled) for those reasons.
+ */
+@Service
+public class InventoryLedger {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryLedger.class);
+
+    private static final String APPLY_DELTA_SQL =
+            "UPDATE food_items SET inventory = inventory + ? WHERE name = ?";
+
+    private static final class Stock {
+        final AtomicInteger available;
+        final AtomicInteger unflushed;
+        // Reserve / release share it; reset() takes it exclusively to retire this Stock
+        final ReentrantReadWriteLock gate = new ReentrantReadWriteLock();
+        boolean retired; // guarded by gate
+
+        Stock(int available, int unflushed) {
+            this.available = new AtomicInteger(available);
+            this.unflushed = new AtomicInteger(unflushed);
+        }
+    }
+
+    private final JdbcTemplate jdbcTemplate;
+    private final boolean enabled;
+
+    private final Map<String, Stock> stock = new ConcurrentHashMap<>();
+    private volatile boolean loaded;
+
+    private final LongAdder reserved = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder released = new LongAdder();
+    private final LongAdder flushes = new LongAdder();
+
+    public InventoryLedger(JdbcTemplate jdbcTemplate,
+                           @Value("${app.inventory.ledger.enabled:false}") boolean enabled) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.enabled = enabled;
+    }
+
+    /** False until the counters have been loaded, or when the ledger is switched off. */
+    public boolean isActive() {
+        return enabled && loaded;
+    }
+
+    // --------------------------------------------------------------------
+    // STARTUP RECONCILIATION
+    // --------------------------------------------------------------------
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        if (!enabled) return;
+        jdbcTemplate.query("SELECT name, inventory FROM food_items", rs -> {
+            String name = rs.getString("name");
+            if (name != null) stock.put(name, new Stock(rs.getInt("inventory"), 0));
+        });
+        loaded = true;
+        log.info("[INVENTORY] Ledger loaded {} dishes from food_items", stock.size());
+    }
+
+    // --------------------------------------------------------------------
+    // RESERVE / RELEASE (CAS counters; per-dish read locks only exclude reset())
+    // --------------------------------------------------------------------
+    /**
+     * Takes every line or none. Dishes without a food_items row are not tracked.
+     * The dishes stay read-locked until every line is taken or undone, so an admin
+     * reset cannot swap a Stock between the debit and its undo.
+     *
+     * @throws InsufficientInventoryException naming the first line that was short
+     */
+    public void reserve(SortedMap<String, Integer> quantities) {
+        List<Stock> held = new ArrayList<>(quantities.size());
+        List<Integer> taken = new ArrayList<>(quantities.size());
+        try {
+            for (Map.Entry<String, Integer> line : quantities.entrySet()) {
+                // Sorted keys, so concurrent carts always lock dishes in the same order
+                Stock s = acquire(line.getKey());
+                if (s == null) continue;
+                held.add(s);
+                if (!tryTake(s, line.getValue())) {
+                    for (int i = 0; i < taken.size(); i++) {
+                        give(held.get(i), taken.get(i));
+                    }
+                    rejected.increment();
+                    throw new InsufficientInventoryException(line.getKey());
+                }
+                taken.add(line.getValue());
+            }
+            reserved.increment();
+        } finally {
+            for (Stock s : held) s.gate.readLock().unlock();
+        }
+    }
+
+    /**
+     * Returns stock taken by reserve(), e.g. when the order transaction rolls back.
+     * A reset() in between carried the reservation into the dish's current Stock, so
+     * that is the one credited.
+     */
+    public void release(SortedMap<String, Integer> quantities) {
+        for (Map.Entry<String, Integer> line : quantities.entrySet()) {
+            Stock s = acquire(line.getKey());
+            if (s == null) continue;
+            try {
+                give(s, line.getValue());
+            } finally {
+                s.gate.readLock().unlock();
+            }
+        }
+        released.increment();
+    }
+
+    // Read-locks the dish's live Stock, or returns null when the dish is not tracked
+    private Stock acquire(String name) {
+        while (true) {
+            Stock s = stock.get(name);
+            if (s == null) return null;
+            s.gate.readLock().lock();
+            if (!s.retired) return s;
+            // reset() replaced it while we waited; the map already holds the successor
+            s.gate.readLock().unlock();
+        }
+    }
+
+    private static boolean tryTake(Stock s, int quantity) {
+        while (true) {
+            int current = s.available.get();
+            if (current < quantity) return false;
+            if (s.available.compareAndSet(current, current - quantity)) {
+                s.unflushed.addAndGet(-quantity);
+                return true;
+            }
+        }
+    }
+
+    private static void give(Stock s, int quantity) {
+        s.available.addAndGet(quantity);
+        s.unflushed.addAndGet(quantity);
+    }
+
+    // --------------------------------------------------------------------
+    // ADMIN CHANGES TO food_items
+    // --------------------------------------------------------------------
+    /**
+     * Called after an admin write to food_items. The row as stored now becomes the
+     * dish's counter, and reservations not flushed yet are carried over on top of it
+     * (they are not in the row), so a later flush or rollback release still applies
+     * them exactly once. The dishes involved are write-locked for the swap, and the
+     * flush lock keeps a concurrent flush from seeing a half-swapped dish.
+     */
+    public synchronized void reset(String oldName, String newName) {
+        if (!loaded) return;
+        Set<String> names = new TreeSet<>();
+        if (oldName != null) names.add(oldName);
+        if (newName != null) names.add(newName);
+
+        List<Stock> locked = new ArrayList<>(names.size());
+        for (String name : names) {
+            Stock s = stock.get(name);
+            if (s == null) continue;
+            s.gate.writeLock().lock();
+            locked.add(s);
+        }
+        try {
+            int pending = 0;
+            for (String name : names) {
+                Stock s = stock.remove(name);
+                if (s == null) continue;
+                s.retired = true;
+                if (name.equals(oldName)) pending += s.unflushed.getAndSet(0);
+            }
+            if (newName == null) return; // deleted: the row and its pending sales are gone
+
+            List<Integer> current = jdbcTemplate.queryForList(
+                    "SELECT inventory FROM food_items WHERE name = ?", Integer.class, newName);
+            if (!current.isEmpty() && current.get(0) != null) {
+                stock.put(newName, new Stock(current.get(0) + pending, pending));
+            }
+        } finally {
+            for (Stock s : locked) s.gate.writeLock().unlock();
+        }
+    }
+
+    // --------------------------------------------------------------------
+    // WRITE-BEHIND FLUSH
+    // --------------------------------------------------------------------
+    @Scheduled(fixedDelayString = "${app.inventory.ledger.flush-interval-ms:500}")
+    public synchronized void flush() {
+        if (!loaded) return;
+
+        List<String> names = new ArrayList<>();
+        List<Integer> deltas = new ArrayList<>();
+        for (Map.Entry<String, Stock> e : stock.entrySet()) {
+            int delta = e.getValue().unflushed.getAndSet(0);
+            if (delta != 0) {
+                names.add(e.getKey());
+                deltas.add(delta);
+            }
+        }
+        if (names.isEmpty()) return;
+
+        try {
+            jdbcTemplate.batchUpdate(APPLY_DELTA_SQL, new BatchPreparedStatementSetter() {
+                @Override
+                public void setValues(PreparedStatement ps, int i) throws SQLException {
+                    ps.setInt(1, deltas.get(i));
+                    ps.setString(2, names.get(i));
+                }
+
+                @Override
+                public int getBatchSize() {
+                    return names.size();
+                }
+            });
+            flushes.increment();
+        } catch (RuntimeException e) {
+            // Put the deltas back so the next run retries them
+            for (int i = 0; i < names.size(); i++) {
+                Stock s = stock.get(names.get(i));
+                if (s != null) s.unflushed.addAndGet(deltas.get(i));
+            }
+            log.error("[INVENTORY] Flush of {} deltas failed: {}", names.size(), e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void flushOnShutdown() {
+        flush();
+    }
+
+    // --------------------------------------------------------------------
+    // METRICS
+    // --------------------------------------------------------------------
+    public Map<String, Object> stats() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("enabled", enabled);
+        map.put("loaded", loaded);
+        map.put("dishes", stock.size());
+        map.put("reserved", reserved.sum());
+        map.put("rejected", rejected.sum());
+        map.put("released", released.sum());
+        map.put("flushes", flushes.sum());
+        int unflushed = 0;
+        for (Stock s : stock.values()) unflushed += Math.abs(s.unflushed.get());
+        map.put("unflushedUnits", unflushed);
+        return map;
+    }
+}
@@ -0,0 +1,108 @@
+package services;
+
+import java.sql.PreparedStatement;
+import java.sql.SQLException;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.SortedMap;
+
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+/**
+ * Stock decrements for placed orders. Normally stock is taken from the in-memory
+ * InventoryLedger; until it has loaded (or when it is switched off) each cart line
+ * is one conditional UPDATE, so the check and the decrement happen under the row
+ * lock and two concurrent orders can never both take the last unit.
+ */
+@Service
+public class InventoryService {
+
+    private static final String DECREMENT_SQL =
+            "UPDATE food_items SET inventory = inventory - ? WHERE name = ? AND inventory >= ?";
+
+    private static final String EXISTS_SQL = "SELECT COUNT(*) FROM food_items WHERE name = ?";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final InventoryLedger ledger;
+
+    public InventoryService(JdbcTemplate jdbcTemplate, InventoryLedger ledger) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.ledger = ledger;
+    }
+
+    /**
+     * Takes stock for a cart inside the caller's transaction, from the ledger when it
+     * is active. Ledger reservations are handed back if that transaction does not commit.
+     *
+     * @throws InsufficientInventoryException if any tracked line cannot be covered
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void take(SortedMap<String, Integer> quantities) {
+        if (!ledger.isActive()) {
+            decrement(quantities);
+            return;
+        }
+        ledger.reserve(quantities);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCompletion(int status) {
+                if (status != STATUS_COMMITTED) {
+                    ledger.release(quantities);
+                }
+            }
+        });
+    }
+
+    /**
+     * Takes every line's quantity in one JDBC batch, inside the caller's transaction.
+     * Lines are keyed by food name and must be sorted so concurrent orders lock rows
+     * in the same order. Names not on the menu are not stock-tracked and are skipped.
+     *
+     * @throws InsufficientInventoryException if any tracked line cannot be covered;
+     *         the caller's transaction then rolls back every line already taken
+     * @throws IllegalStateException if the driver reports no row count for a line
+     *         (e.g. Statement.SUCCESS_NO_INFO), which also rolls the cart back
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void decrement(SortedMap<String, Integer> quantities) {
+        if (quantities.isEmpty()) return;
+        List<Map.Entry<String, Integer>> lines = new ArrayList<>(quantities.entrySet());
+
+        int[] updated = jdbcTemplate.batchUpdate(DECREMENT_SQL, new BatchPreparedStatementSetter() {
+            @Override
+            public void setValues(PreparedStatement ps, int i) throws SQLException {
+                Map.Entry<String, Integer> line = lines.get(i);
+                ps.setInt(1, line.getValue());
+                ps.setString(2, line.getKey());
+                ps.setInt(3, line.getValue());
+            }
+
+            @Override
+            public int getBatchSize() {
+                return lines.size();
+            }
+        });
+
+        for (int i = 0; i < updated.length; i++) {
+            if (updated[i] > 0) continue;
+            if (updated[i] < 0) {
+                // SUCCESS_NO_INFO cannot tell a taken line from a sold-out one, so the whole cart fails
+                throw new IllegalStateException("No update count for stock of " + lines.get(i).getKey()
+                        + " (" + updated[i] + "); cannot confirm the decrement");
+            }
+            // Rare path: tell "not tracked" apart from "sold out"
+            String name = lines.get(i).getKey();
+            Integer rows = jdbcTemplate.queryForObject(EXISTS_SQL, Integer.class, name);
+            if (rows != null && rows > 0) {
+                throw new InsufficientInventoryException(name);
+            }
+        }
+    }
+}
@@ -0,0 +1,192 @@
+package services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import dbmodel.OrderStatus;
+import dto.OrderResponseDTO;
+import dto.OrderStatusChangedEvent;
+import jakarta.annotation.PreDestroy;
+import repository.OrderRepository;
+
+/**
+ * Sends the invoice email for every order that becomes DELIVERED.
+ *
+ * Invoices are queued only after the status change commits and are sent from a
+ * small background pool, so a status update (single or bulk) never waits on the
+ * mail provider and a rolled-back update never emails anyone. DELIVERED is final
+ * and only reached through a compare-and-set UPDATE, so each order publishes one
+ * committed DELIVERED event; that alone would make the email at-most-once, which
+ * is why delivery is tracked on the row below.
+ *
+ * Delivery is tracked on the order row: a sender claims the invoice with a
+ * compare-and-set on invoice_claimed_at, and invoice_sent_at is set once the mail
+ * provider accepted it. Invoices dropped on a full queue, failed sends, claims
+ * abandoned by a dead instance and anything still queued at shutdown are picked
+ * up by a periodic sweep over recently DELIVERED orders. This is at-least-once:
+ * an instance that dies between the send and marking it sent causes one resend
+ * once the claim goes stale.
+ */
+@Service
+public class InvoiceDispatcher {
+
+    private static final Logger log = LoggerFactory.getLogger(InvoiceDispatcher.class);
+
+    // A claim older than this was abandoned (the sender died) and may be taken again
+    private static final Duration CLAIM_LEASE = Duration.ofMinutes(10);
+    // Leave fresh deliveries to the after-commit path
+    private static final Duration SETTLE = Duration.ofMinutes(1);
+    private static final int SWEEP_BATCH = 500;
+
+    private final OrderRepository orderRepo;
+    private final EmailService emailService;
+    private final TransactionTemplate tx;
+    private final TransactionTemplate readOnlyTx;
+    private final Duration retryWindow;
+    private final ThreadPoolExecutor senders;
+
+    private final LongAdder sent = new LongAdder();
+    private final LongAdder failed = new LongAdder();
+    private final LongAdder dropped = new LongAdder();
+    private final LongAdder retried = new LongAdder();
+
+    public InvoiceDispatcher(OrderRepository orderRepo,
+                             EmailService emailService,
+                             PlatformTransactionManager transactionManager,
+                             @Value("${app.orders.invoices.workers:2}") int workerCount,
+                             @Value("${app.orders.invoices.queue-capacity:10000}") int queueCapacity,
+                             @Value("${app.orders.invoices.retry-window-hours:24}") long retryWindowHours) {
+        this.orderRepo = orderRepo;
+        this.emailService = emailService;
+        this.tx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.retryWindow = Duration.ofHours(retryWindowHours);
+
+        AtomicInteger threadNo = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "invoice-sender-" + threadNo.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    @TransactionalEventListener
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        if (event.to() != OrderStatus.DELIVERED || event.from() == OrderStatus.DELIVERED) return;
+        if (!enqueue(event.orderId())) {
+            dropped.increment();
+            log.warn("[INVOICE] Queue full, invoice for {} left to the retry sweep", event.orderId());
+        }
+    }
+
+    private boolean enqueue(String orderId) {
+        try {
+            senders.execute(() -> send(orderId));
+            return true;
+        } catch (RejectedExecutionException e) {
+            return false;
+        }
+    }
+
+    private void send(String orderId) {
+        // Millisecond precision so the stored claim compares equal on every database
+        Instant claimedAt = Instant.now().truncatedTo(ChronoUnit.MILLIS);
+        Integer claimed = tx.execute(status -> orderRepo.claimInvoice(orderId, claimedAt, claimedAt.minus(CLAIM_LEASE)));
+        // Already sent, or another sender holds it
+        if (claimed == null || claimed == 0) return;
+
+        try {
+            // Items are lazy, so build the DTO while the session is open
+            OrderResponseDTO dto = readOnlyTx.execute(status -> orderRepo.findByOrderId(orderId)
+                    .map(OrderResponseDTO::new)
+                    .orElse(null));
+            if (dto == null) return;
+            emailService.sendOrderInvoice(dto);
+        } catch (RuntimeException e) {
+            failed.increment();
+            log.error("[INVOICE] Could not send invoice for {}: {}", orderId, e.getMessage());
+            release(orderId, claimedAt);
+            return;
+        }
+        sent.increment();
+        try {
+            tx.executeWithoutResult(status -> orderRepo.markInvoiceSent(orderId, claimedAt, Instant.now()));
+        } catch (RuntimeException e) {
+            // The claim lapses and the sweep sends it again
+            log.error("[INVOICE] Invoice for {} sent but not recorded: {}", orderId, e.getMessage());
+        }
+    }
+
+    private void release(String orderId, Instant claimedAt) {
+        try {
+            tx.executeWithoutResult(status -> orderRepo.releaseInvoice(orderId, claimedAt));
+        } catch (RuntimeException e) {
+            log.warn("[INVOICE] Could not release claim on {}: {}", orderId, e.getMessage());
+        }
+    }
+
+    // --------------------------------------------------------------------
+    // RETRY SWEEP
+    // --------------------------------------------------------------------
+    @Scheduled(fixedDelayString = "${app.orders.invoices.retry-interval-ms:300000}")
+    public void retryUnsent() {
+        Instant now = Instant.now();
+        int room = Math.min(SWEEP_BATCH, senders.getQueue().remainingCapacity());
+        if (room == 0) return;
+        List<String> unsent = readOnlyTx.execute(status -> orderRepo.findUnsentInvoices(now.minus(retryWindow),
+                now.minus(SETTLE), now.minus(CLAIM_LEASE), Limit.of(room)));
+        if (unsent == null || unsent.isEmpty()) return;
+
+        int queued = 0;
+        for (String orderId : unsent) {
+            if (!enqueue(orderId)) break;
+            queued++;
+        }
+        retried.add(queued);
+        log.info("[INVOICE] Retrying {} unsent invoices", queued);
+    }
+
+    // Give queued invoices a chance to go out before the context closes; the rest are swept later
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        senders.shutdown();
+        if (!senders.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("[INVOICE] {} invoices still queued at shutdown, left to the retry sweep", senders.getQueue().size());
+            senders.shutdownNow();
+        }
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("queued", senders.getQueue().size());
+        map.put("sending", senders.getActiveCount());
+        map.put("sent", sent.sum());
+        map.put("failed", failed.sum());
+        map.put("dropped", dropped.sum());
+        map.put("retried", retried.sum());
+        return map;
+    }
+}
@@ -0,0 +1,335 @@
+package services;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import dbmodel.OrderStatus;
+import dto.KitchenQueuePageDTO;
+import dto.KitchenTicket;
+import dto.OrderPlacedEvent;
+import dto.OrderResponseDTO;
+import dto.OrderStatusChangedEvent;
+
+/**
+ * In-memory kitchen queue: one FIFO index per active OrderStatus, ordered by
+ * (orderedAt, orderId), so a kitchen screen reads a page straight from memory.
+ *
+ * Built from the database at startup and then kept current by the committed
+ * placed/status-changed events; an order is moved between indexes on every
+ * transition. DELIVERED orders leave the queue (it only ever holds open orders).
+ * Every ticket entering or leaving an index is also reported to PrepAggregator.
+ * Writes are serialized on this object; reads walk the skip lists without locking.
+ * A placed event carries the whole ticket, so only a transition for an order the
+ * queue has never seen reads the database, and that read runs outside the lock.
+ *
+ * Events only arrive from this instance, so the queue is also reconciled against
+ * the open orders in the database on a schedule; that picks up orders placed or
+ * moved on other instances. Orders that left the queue are remembered for a while,
+ * so a placed event handled after the DELIVERED one cannot bring an order back.
+ */
+@Service
+public class KitchenQueueService {
+
+    private static final Logger log = LoggerFactory.getLogger(KitchenQueueService.class);
+
+    public static final int MAX_PAGE_SIZE = 200;
+
+    // Statuses an order is still being worked on in; the terminal one is not indexed
+    public static final Set<OrderStatus> ACTIVE =
+            Collections.unmodifiableSet(EnumSet.complementOf(EnumSet.of(OrderStatus.DELIVERED)));
+
+    private record Key(Instant orderedAt, String orderId) {}
+
+    // An order whose queue status (null = not queued) differs from the database's
+    private record Drift(OrderStatus have, OrderStatus want) {}
+
+    // Long past any placed event still in flight for an order that has already left the queue
+    private static final Duration CLOSED_MEMORY = Duration.ofHours(1);
+
+    private static final Comparator<Key> FIFO =
+            Comparator.comparing(Key::orderedAt).thenComparing(Key::orderId);
+
+    private final OrderService orderService;
+    private final PrepAggregator prep;
+
+    private final Map<OrderStatus, ConcurrentSkipListMap<Key, KitchenTicket>> queues = new EnumMap<>(OrderStatus.class);
+    private final Map<OrderStatus, AtomicInteger> sizes = new EnumMap<>(OrderStatus.class);
+    private final Map<String, KitchenTicket> byId = new ConcurrentHashMap<>();
+    // Orders that reached a terminal status here, and when; guarded by this
+    private final Map<String, Instant> closed = new HashMap<>();
+    private Map<String, Drift> suspected = Map.of();
+    private volatile boolean loaded;
+
+    public KitchenQueueService(OrderService orderService, PrepAggregator prep) {
+        this.orderService = orderService;
+        this.prep = prep;
+        // Fixed key set from here on, so the EnumMaps are only ever read concurrently
+        for (OrderStatus status : ACTIVE) {
+            queues.put(status, new ConcurrentSkipListMap<>(FIFO));
+            sizes.put(status, new AtomicInteger());
+        }
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    // --------------------------------------------------------------------
+    // REBUILD FROM orders
+    // --------------------------------------------------------------------
+    @EventListener(ApplicationReadyEvent.class)
+    public synchronized void rebuild() {
+        long started = System.currentTimeMillis();
+        List<OrderResponseDTO> open = orderService.getOrdersByStatuses(ACTIVE);
+
+        queues.values().forEach(Map::clear);
+        sizes.values().forEach(size -> size.set(0));
+        byId.clear();
+        suspected = Map.of();
+        for (OrderResponseDTO order : open) {
+            index(KitchenTicket.of(order));
+        }
+        prep.reset(byId.values());
+        loaded = true;
+        log.info("[KITCHEN] Queue rebuilt with {} open orders in {} ms",
+                open.size(), System.currentTimeMillis() - started);
+    }
+
+    // --------------------------------------------------------------------
+    // INCREMENTAL MAINTENANCE (after commit)
+    // --------------------------------------------------------------------
+    @TransactionalEventListener
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        if (!ACTIVE.contains(event.status())) return;
+        KitchenTicket ticket = KitchenTicket.of(event);
+        synchronized (this) {
+            // A transition that overtook this event has already loaded (or closed) the order
+            if (!byId.containsKey(ticket.orderId()) && !closed.containsKey(ticket.orderId())) add(ticket);
+        }
+    }
+
+    @TransactionalEventListener
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        synchronized (this) {
+            if (!ACTIVE.contains(event.to())) closed.put(event.orderId(), Instant.now());
+            KitchenTicket ticket = byId.get(event.orderId());
+            if (ticket != null) {
+                // Two changes committing close together can arrive out of order; keep the newer one
+                if (ticket.statusChangedAt() != null && event.changedAt().isBefore(ticket.statusChangedAt())) return;
+
+                remove(ticket);
+                if (ACTIVE.contains(event.to())) {
+                    add(ticket.moveTo(event.to(), event.changedAt()));
+                }
+                return;
+            }
+        }
+        // Placed event not applied yet (or missed): take the order as it is now
+        if (ACTIVE.contains(event.to())) load(event.orderId());
+    }
+
+    // Reads without holding the lock; whatever an event put in meanwhile is newer and wins
+    private void load(String orderId) {
+        List<OrderResponseDTO> orders;
+        try {
+            orders = orderService.getOrdersByIds(List.of(orderId));
+        } catch (RuntimeException e) {
+            log.error("[KITCHEN] Could not load order {}: {}", orderId, e.getMessage());
+            return;
+        }
+        synchronized (this) {
+            for (OrderResponseDTO order : orders) {
+                KitchenTicket ticket = KitchenTicket.of(order);
+                if (ACTIVE.contains(ticket.status()) && !byId.containsKey(ticket.orderId())
+                        && !closed.containsKey(ticket.orderId())) {
+                    add(ticket);
+                }
+            }
+        }
+    }
+
+    private void add(KitchenTicket ticket) {
+        if (index(ticket)) prep.add(ticket);
+    }
+
+    private boolean index(KitchenTicket ticket) {
+        KitchenTicket previous = byId.put(ticket.orderId(), ticket);
+        if (previous != null) removeFromQueue(previous);
+        if (queues.get(ticket.status()).put(key(ticket), ticket) == null) {
+            sizes.get(ticket.status()).incrementAndGet();
+            return true;
+        }
+        return false;
+    }
+
+    private void remove(KitchenTicket ticket) {
+        byId.remove(ticket.orderId());
+        removeFromQueue(ticket);
+    }
+
+    private void removeFromQueue(KitchenTicket ticket) {
+        KitchenTicket removed = queues.get(ticket.status()).remove(key(ticket));
+        if (removed != null) {
+            sizes.get(ticket.status()).decrementAndGet();
+            prep.remove(removed);
+        }
+    }
+
+    private static Key key(KitchenTicket ticket) {
+        // Rows from before orderedAt was always set sort first
+        return new Key(ticket.orderedAt() == null ? Instant.EPOCH : ticket.orderedAt(), ticket.orderId());
+    }
+
+    // --------------------------------------------------------------------
+    // RECONCILIATION AGAINST orders
+    // --------------------------------------------------------------------
+    /**
+     * Compares the queue with the open orders in the database. A difference is only
+     * corrected once two runs in a row see it unchanged, so an event committed while
+     * the database was being read is never undone by the older read.
+     */
+    @Scheduled(fixedDelayString = "${app.kitchen.queue.reconcile-interval-ms:30000}",
+               initialDelayString = "${app.kitchen.queue.reconcile-interval-ms:30000}")
+    public Map<String, Object> reconcile() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (!loaded) {
+            result.put("skipped", "kitchen queue not loaded yet");
+            return result;
+        }
+
+        Map<String, OrderResponseDTO> open = new HashMap<>();
+        for (OrderResponseDTO order : orderService.getOrdersByStatuses(ACTIVE)) {
+            open.put(order.getOrderId(), order);
+        }
+
+        synchronized (this) {
+            Instant forgetBefore = Instant.now().minus(CLOSED_MEMORY);
+            closed.values().removeIf(at -> at.isBefore(forgetBefore));
+
+            Set<String> ids = new HashSet<>(open.keySet());
+            ids.addAll(byId.keySet());
+            Map<String, Drift> drifted = new HashMap<>();
+            int corrected = 0;
+            for (String orderId : ids) {
+                KitchenTicket ticket = byId.get(orderId);
+                OrderResponseDTO order = open.get(orderId);
+                Drift drift = new Drift(ticket == null ? null : ticket.status(),
+                        order == null ? null : OrderStatus.valueOf(order.getStatus()));
+                if (drift.have() == drift.want()) continue;
+                // Closed here after the database was read
+                if (drift.want() != null && closed.containsKey(orderId)) continue;
+
+                if (drift.equals(suspected.get(orderId))) {
+                    if (ticket != null) remove(ticket);
+                    if (order != null) add(KitchenTicket.of(order));
+                    else closed.put(orderId, Instant.now());
+                    corrected++;
+                } else {
+                    drifted.put(orderId, drift);
+                }
+            }
+            suspected = drifted;
+            if (corrected > 0) log.info("[KITCHEN] Reconcile corrected {} orders", corrected);
+
+            result.put("ordersChecked", ids.size());
+            result.put("pendingDrift", drifted.size());
+            result.put("corrected", corrected);
+        }
+        return result;
+    }
+
+    // --------------------------------------------------------------------
+    // READS (memory only)
+    // --------------------------------------------------------------------
+    /**
+     * Oldest orders first. Pass the returned nextCursor back for the following page.
+     *
+     * @throws IllegalArgumentException on an unknown or terminal status, or a malformed cursor
+     * @throws IllegalStateException while the queue is still being built
+     */
+    public KitchenQueuePageDTO page(String status, String cursor, int size) {
+        if (!loaded) throw new IllegalStateException("Kitchen queue is still loading");
+        OrderStatus queueStatus = parseStatus(status);
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        ConcurrentSkipListMap<Key, KitchenTicket> queue = queues.get(queueStatus);
+        NavigableMap<Key, KitchenTicket> view = cursor == null || cursor.isBlank()
+                ? queue
+                : queue.tailMap(decodeCursor(cursor), false);
+
+        List<KitchenTicket> tickets = new ArrayList<>(pageSize);
+        String nextCursor = null;
+        for (Map.Entry<Key, KitchenTicket> entry : view.entrySet()) {
+            if (tickets.size() == pageSize) {
+                nextCursor = encodeCursor(key(tickets.get(pageSize - 1)));
+                break;
+            }
+            tickets.add(entry.getValue());
+        }
+        return new KitchenQueuePageDTO(queueStatus.name(), sizes.get(queueStatus).get(), tickets, nextCursor);
+    }
+
+    public Map<String, Object> summary() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("loaded", loaded);
+        for (OrderStatus status : ACTIVE) {
+            map.put(status.name(), sizes.get(status).get());
+        }
+        return map;
+    }
+
+    private static OrderStatus parseStatus(String status) {
+        OrderStatus parsed;
+        try {
+            parsed = OrderStatus.valueOf(String.valueOf(status).toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid status. Allowed values: " + ACTIVE);
+        }
+        if (!ACTIVE.contains(parsed)) {
+            throw new IllegalArgumentException(parsed + " orders are not kept in the kitchen queue");
+        }
+        return parsed;
+    }
+
+    private static String encodeCursor(Key key) {
+        String raw = key.orderedAt() + "|" + key.orderId();
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static Key decodeCursor(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            int sep = raw.indexOf('|');
+            if (sep <= 0 || sep == raw.length() - 1) throw new IllegalArgumentException("Invalid cursor");
+            return new Key(Instant.parse(raw.substring(0, sep)), raw.substring(sep + 1));
+        } catch (IllegalArgumentException | DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+    }
+}
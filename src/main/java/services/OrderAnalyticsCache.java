@@ -0,0 +1,299 @@
+package services;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import dbmodel.OrderStatus;
+import dbmodel.PaymentMode;
+import dto.OrderPlacedEvent;
+import dto.OrderStatusChangedEvent;
+import repository.OrderFact;
+import repository.OrderRepository;
+
+/**
+ * Append-only columnar copy of the report-relevant order facts.
+ *
+ * Rows are kept sorted by orderedAt (epoch seconds) so a date range becomes two
+ * binary searches and a loop over primitive arrays. Orders are only ever added,
+ * and a status change rewrites one byte in place. Every access to the columns,
+ * including the initial load, holds the read or write lock.
+ */
+@Service
+public class OrderAnalyticsCache {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderAnalyticsCache.class);
+
+    private static final int INITIAL_CAPACITY = 1024;
+
+    // Bytes per row across the five columns below (a compressed reference for the id)
+    private static final int ROW_BYTES = Long.BYTES + Long.BYTES + Integer.BYTES + 1 + 1;
+
+    // String header plus its byte[] header; the characters are added per id
+    private static final int STRING_OVERHEAD = 24 + 16;
+
+    private final OrderRepository orderRepo;
+    private final TransactionTemplate readOnlyTx;
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    private long[] orderedAt = new long[INITIAL_CAPACITY];
+    private long[] amountPaise = new long[INITIAL_CAPACITY];
+    private String[] orderIds = new String[INITIAL_CAPACITY];
+    private byte[] status = new byte[INITIAL_CAPACITY];
+    private byte[] paymentMode = new byte[INITIAL_CAPACITY];
+    private int size;
+    private long idBytes;
+
+    private volatile boolean loaded;
+    private volatile long loadMillis;
+
+    // Events that commit while the initial load is running; replayed once it finishes
+    private final List<Object> pendingEvents = new ArrayList<>();
+
+    public OrderAnalyticsCache(OrderRepository orderRepo, PlatformTransactionManager transactionManager) {
+        this.orderRepo = orderRepo;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+    }
+
+    /** Read-only view handed to range scanners; valid only while the read lock is held. */
+    public static final class Columns {
+        public final long[] orderedAt;
+        public final long[] amountPaise;
+        public final byte[] status;
+        public final byte[] paymentMode;
+
+        Columns(long[] orderedAt, long[] amountPaise, byte[] status, byte[] paymentMode) {
+            this.orderedAt = orderedAt;
+            this.amountPaise = amountPaise;
+            this.status = status;
+            this.paymentMode = paymentMode;
+        }
+    }
+
+    @FunctionalInterface
+    public interface RangeScanner<R> {
+        /** Scans rows [from, to) of the columns. */
+        R scan(Columns columns, int from, int to);
+    }
+
+    // --------------------------------------------------------------------
+    // LOAD AT STARTUP
+    // --------------------------------------------------------------------
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.currentTimeMillis();
+        try {
+            readOnlyTx.executeWithoutResult(tx -> {
+                // Until loaded is set listeners only queue into pendingEvents, so the lock is
+                // never contended here; it is taken per row so stats() sees whole rows
+                try (Stream<OrderFact> facts = orderRepo.streamAllFacts()) {
+                    facts.forEach(f -> {
+                        lock.writeLock().lock();
+                        try {
+                            insert(f.getOrderId(), f.getOrderedAt(), f.getStatus(), f.getPaymentMode(),
+                                    f.getFinalAmount());
+                        } finally {
+                            lock.writeLock().unlock();
+                        }
+                    });
+                }
+            });
+        } catch (Exception e) {
+            log.error("[ANALYTICS] Initial load failed, reports fall back to rollups: {}", e.getMessage());
+            return;
+        }
+
+        int rows;
+        long footprint;
+        lock.writeLock().lock();
+        try {
+            loaded = true;
+            for (Object event : pendingEvents) {
+                if (event instanceof OrderPlacedEvent placed) {
+                    applyPlaced(placed);
+                } else {
+                    applyStatusChange((OrderStatusChangedEvent) event);
+                }
+            }
+            pendingEvents.clear();
+            rows = size;
+            footprint = footprintBytes();
+        } finally {
+            lock.writeLock().unlock();
+        }
+
+        loadMillis = System.currentTimeMillis() - started;
+        log.info("[ANALYTICS] Loaded {} orders in {} ms ({} bytes)", rows, loadMillis, footprint);
+    }
+
+    // --------------------------------------------------------------------
+    // INCREMENTAL UPDATES (after the order transaction commits)
+    // --------------------------------------------------------------------
+    @Order(0)
+    @TransactionalEventListener
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                pendingEvents.add(event);
+                return;
+            }
+            applyPlaced(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    @Order(0)
+    @TransactionalEventListener
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        lock.writeLock().lock();
+        try {
+            if (!loaded) {
+                pendingEvents.add(event);
+                return;
+            }
+            applyStatusChange(event);
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    private void applyPlaced(OrderPlacedEvent e) {
+        // The initial scan may already have seen an order that committed while it ran
+        if (find(e.orderId(), e.orderedAt()) >= 0) return;
+        insert(e.orderId(), e.orderedAt(), e.status(), e.paymentMode(), e.finalAmount());
+    }
+
+    private void applyStatusChange(OrderStatusChangedEvent e) {
+        int row = find(e.orderId(), e.orderedAt());
+        if (row < 0) {
+            log.warn("[ANALYTICS] Status change for unknown order {}", e.orderId());
+            return;
+        }
+        status[row] = (byte) e.to().ordinal();
+    }
+
+    // --------------------------------------------------------------------
+    // RANGE SCANS
+    // --------------------------------------------------------------------
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    /** Runs the scanner over rows with from <= orderedAt < to, holding the read lock. */
+    public <R> R scan(Instant from, Instant to, RangeScanner<R> scanner) {
+        lock.readLock().lock();
+        try {
+            int lo = lowerBound(from.getEpochSecond());
+            int hi = lowerBound(to.getEpochSecond());
+            return scanner.scan(new Columns(orderedAt, amountPaise, status, paymentMode), lo, hi);
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --------------------------------------------------------------------
+    // METRICS
+    // --------------------------------------------------------------------
+    public Map<String, Object> stats() {
+        lock.readLock().lock();
+        try {
+            Map<String, Object> map = new LinkedHashMap<>();
+            map.put("loaded", loaded);
+            map.put("rows", size);
+            map.put("capacity", orderedAt.length);
+            map.put("bytesPerRow", ROW_BYTES);
+            map.put("footprintBytes", footprintBytes());
+            map.put("loadMillis", loadMillis);
+            return map;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private long footprintBytes() {
+        // 16-byte array header per column plus the allocated (not just used) capacity, plus the id strings
+        return 5L * 16 + (long) orderedAt.length * ROW_BYTES + idBytes;
+    }
+
+    // --------------------------------------------------------------------
+    // INTERNALS (write lock held by callers)
+    // --------------------------------------------------------------------
+    private void insert(String orderId, Instant at, OrderStatus st, PaymentMode mode, BigDecimal amount) {
+        if (at == null) return;
+        if (size == orderedAt.length) grow();
+
+        long seconds = at.getEpochSecond();
+        // Commits arrive almost in timestamp order, so this is nearly always the tail
+        int pos = size;
+        while (pos > 0 && orderedAt[pos - 1] > seconds) pos--;
+        if (pos < size) {
+            System.arraycopy(orderedAt, pos, orderedAt, pos + 1, size - pos);
+            System.arraycopy(amountPaise, pos, amountPaise, pos + 1, size - pos);
+            System.arraycopy(orderIds, pos, orderIds, pos + 1, size - pos);
+            System.arraycopy(status, pos, status, pos + 1, size - pos);
+            System.arraycopy(paymentMode, pos, paymentMode, pos + 1, size - pos);
+        }
+
+        orderedAt[pos] = seconds;
+        amountPaise[pos] = toPaise(amount);
+        orderIds[pos] = orderId;
+        idBytes += STRING_OVERHEAD + ((orderId.length() + 7) & ~7);
+        status[pos] = (byte) st.ordinal();
+        paymentMode[pos] = (byte) mode.ordinal();
+        size++;
+    }
+
+    private int find(String orderId, Instant at) {
+        if (at == null) return -1;
+        long seconds = at.getEpochSecond();
+        // Only the orders placed in the same second are compared
+        for (int i = lowerBound(seconds); i < size && orderedAt[i] == seconds; i++) {
+            if (orderIds[i].equals(orderId)) return i;
+        }
+        return -1;
+    }
+
+    // First row with orderedAt >= seconds
+    private int lowerBound(long seconds) {
+        int lo = 0, hi = size;
+        while (lo < hi) {
+            int mid = (lo + hi) >>> 1;
+            if (orderedAt[mid] < seconds) lo = mid + 1;
+            else hi = mid;
+        }
+        return lo;
+    }
+
+    private void grow() {
+        int capacity = orderedAt.length + (orderedAt.length >> 1);
+        orderedAt = Arrays.copyOf(orderedAt, capacity);
+        amountPaise = Arrays.copyOf(amountPaise, capacity);
+        orderIds = Arrays.copyOf(orderIds, capacity);
+        status = Arrays.copyOf(status, capacity);
+        paymentMode = Arrays.copyOf(paymentMode, capacity);
+    }
+
+    private static long toPaise(BigDecimal amount) {
+        return amount == null ? 0L : amount.movePointRight(2).setScale(0, RoundingMode.HALF_UP).longValue();
+    }
+}
@@ -0,0 +1,135 @@
+package services;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import dbmodel.OrderStatus;
+import dbmodel.PaymentMode;
+
+/**
+ * Status x payment mode x hour-of-day accumulator filled in one pass.
+ *
+ * Counts and paise live in two flat arrays indexed by cell(status, mode, hour);
+ * every total the reports need is a marginal of that cube.
+ */
+public class OrderBreakdown {
+
+    private static final OrderStatus[] STATUSES = OrderStatus.values();
+    private static final PaymentMode[] MODES = PaymentMode.values();
+    private static final int HOURS = 24;
+
+    private final long[] counts = new long[STATUSES.length * MODES.length * HOURS];
+    private final long[] paise = new long[counts.length];
+
+    private static int cell(int status, int mode, int hour) {
+        return (status * MODES.length + mode) * HOURS + hour;
+    }
+
+    public void add(int status, int mode, int hour, long amountPaise) {
+        int c = cell(status, mode, hour);
+        counts[c]++;
+        paise[c] += amountPaise;
+    }
+
+    public OrderBreakdown merge(OrderBreakdown other) {
+        for (int i = 0; i < counts.length; i++) {
+            counts[i] += other.counts[i];
+            paise[i] += other.paise[i];
+        }
+        return this;
+    }
+
+    // --------------------------------------------------------------------
+    // MARGINALS
+    // --------------------------------------------------------------------
+    public long count(OrderStatus status) {
+        long total = 0;
+        for (int m = 0; m < MODES.length; m++)
+            for (int h = 0; h < HOURS; h++) total += counts[cell(status.ordinal(), m, h)];
+        return total;
+    }
+
+    public long paise(OrderStatus status) {
+        long total = 0;
+        for (int m = 0; m < MODES.length; m++)
+            for (int h = 0; h < HOURS; h++) total += paise[cell(status.ordinal(), m, h)];
+        return total;
+    }
+
+    public long totalCount() {
+        long total = 0;
+        for (long c : counts) total += c;
+        return total;
+    }
+
+    public long totalPaise() {
+        long total = 0;
+        for (long p : paise) total += p;
+        return total;
+    }
+
+    // --------------------------------------------------------------------
+    // JSON SHAPE FOR /admin/reports/breakdown
+    // --------------------------------------------------------------------
+    public Map<String, Object> toMap() {
+        long[] modeCount = new long[MODES.length];
+        long[] modePaise = new long[MODES.length];
+        long[] hourCount = new long[HOURS];
+        long[] hourPaise = new long[HOURS];
+
+        Map<String, Object> byStatus = new LinkedHashMap<>();
+        Map<String, Object> byStatusAndPayment = new LinkedHashMap<>();
+        for (OrderStatus status : STATUSES) {
+            long sCount = 0, sPaise = 0;
+            Map<String, Object> perMode = new LinkedHashMap<>();
+            for (PaymentMode mode : MODES) {
+                long smCount = 0, smPaise = 0;
+                for (int h = 0; h < HOURS; h++) {
+                    int c = cell(status.ordinal(), mode.ordinal(), h);
+                    smCount += counts[c];
+                    smPaise += paise[c];
+                    hourCount[h] += counts[c];
+                    hourPaise[h] += paise[c];
+                }
+                perMode.put(mode.name(), bucket(smCount, smPaise));
+                modeCount[mode.ordinal()] += smCount;
+                modePaise[mode.ordinal()] += smPaise;
+                sCount += smCount;
+                sPaise += smPaise;
+            }
+            byStatus.put(status.name(), bucket(sCount, sPaise));
+            byStatusAndPayment.put(status.name(), perMode);
+        }
+
+        Map<String, Object> byPaymentMode = new LinkedHashMap<>();
+        for (PaymentMode mode : MODES) {
+            byPaymentMode.put(mode.name(), bucket(modeCount[mode.ordinal()], modePaise[mode.ordinal()]));
+        }
+
+        List<Map<String, Object>> byHour = new ArrayList<>(HOURS);
+        for (int h = 0; h < HOURS; h++) {
+            Map<String, Object> hour = new LinkedHashMap<>();
+            hour.put("hour", h);
+            hour.putAll(bucket(hourCount[h], hourPaise[h]));
+            byHour.add(hour);
+        }
+
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("totalOrders", totalCount());
+        map.put("totalRevenue", totalPaise() / 100.0);
+        map.put("byStatus", byStatus);
+        map.put("byPaymentMode", byPaymentMode);
+        map.put("byStatusAndPaymentMode", byStatusAndPayment);
+        map.put("byHour", byHour);
+        return map;
+    }
+
+    private static Map<String, Object> bucket(long count, long paise) {
+        Map<String, Object> m = new LinkedHashMap<>();
+        m.put("orders", count);
+        m.put("revenue", paise / 100.0);
+        return m;
+    }
+}
@@ -0,0 +1,344 @@
+package services;
+
+import java.io.IOException;
+import java.util.LinkedHashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import dto.OrderPlacedEvent;
+import dto.OrderStatusChangedEvent;
+import dto.OrderStreamEvent;
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Fans committed order events out to Server-Sent Event subscribers: customers
+ * watching their own orders and admin/kitchen screens watching every order.
+ *
+ * The committing thread only serializes the event once and offers it to each
+ * subscriber's bounded buffer; a small sender pool writes the buffers to the
+ * sockets. A subscriber whose buffer is full (a client that stopped reading) is
+ * closed instead of slowing everyone else down, and a heartbeat comment keeps
+ * idle connections from being cut by proxies.
+ *
+ * A servlet write blocks while the client's TCP window is full, and nothing can
+ * interrupt it. A watchdog therefore evicts any subscriber whose send has run
+ * longer than the write timeout, and adds a sender thread for as long as that
+ * send stays stuck. A few stalled clients can then never park the whole pool.
+ * The stuck write ends when the connector's own timeout fails it.
+ */
+@Service
+public class OrderEventStream {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderEventStream.class);
+
+    private static final class Subscriber {
+        final String userEmail; // null = every order
+        final SseEmitter emitter;
+        final BlockingQueue<SseEmitter.SseEventBuilder> buffer;
+        final AtomicBoolean draining = new AtomicBoolean();
+        volatile boolean closed;
+        // System.nanoTime() when the current send began, 0 when no send is in progress
+        volatile long sendStartedNanos;
+        // Set by the watchdog once; the drain thread hands its extra sender back when the send returns
+        final AtomicBoolean stuck = new AtomicBoolean();
+
+        Subscriber(String userEmail, SseEmitter emitter, int bufferSize) {
+            this.userEmail = userEmail;
+            this.emitter = emitter;
+            this.buffer = new ArrayBlockingQueue<>(bufferSize);
+        }
+    }
+
+    private final ObjectMapper objectMapper;
+    private final long timeoutMillis;
+    private final int bufferSize;
+    private final int maxSubscribers;
+    private final int senderCount;
+    private final long writeTimeoutNanos;
+    private final ThreadPoolExecutor senders;
+    private final AtomicInteger stuckSenders = new AtomicInteger();
+
+    private final Set<Subscriber> subscribers = ConcurrentHashMap.newKeySet();
+    private final Map<String, Set<Subscriber>> byUser = new ConcurrentHashMap<>();
+    // Subscribers a sender thread is draining right now, including ones already evicted
+    private final Set<Subscriber> draining = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder published = new LongAdder();
+    private final LongAdder evicted = new LongAdder();
+    private final LongAdder timedOut = new LongAdder();
+
+    public OrderEventStream(ObjectMapper objectMapper,
+                            @Value("${app.orders.stream.timeout-ms:1800000}") long timeoutMillis,
+                            @Value("${app.orders.stream.buffer-size:64}") int bufferSize,
+                            @Value("${app.orders.stream.max-subscribers:1000}") int maxSubscribers,
+                            @Value("${app.orders.stream.senders:4}") int senderCount,
+                            @Value("${app.orders.stream.write-timeout-ms:10000}") long writeTimeoutMillis) {
+        this.objectMapper = objectMapper;
+        this.timeoutMillis = timeoutMillis;
+        this.bufferSize = bufferSize;
+        this.maxSubscribers = maxSubscribers;
+        this.senderCount = senderCount;
+        this.writeTimeoutNanos = TimeUnit.MILLISECONDS.toNanos(writeTimeoutMillis);
+
+        // At most one drain task per subscriber is queued at a time, so the queue is bounded by subscribers
+        AtomicInteger threadNo = new AtomicInteger();
+        this.senders = new ThreadPoolExecutor(senderCount, senderCount, 0L, TimeUnit.MILLISECONDS,
+                new LinkedBlockingQueue<>(),
+                r -> {
+                    Thread t = new Thread(r, "order-stream-" + threadNo.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    // --------------------------------------------------------------------
+    // SUBSCRIBE
+    // --------------------------------------------------------------------
+    /**
+     * @param userEmail only this customer's orders, or null for every order
+     * @throws RejectedExecutionException when app.orders.stream.max-subscribers streams are open
+     */
+    public SseEmitter subscribe(String userEmail) {
+        return attach(userEmail, new SseEmitter(timeoutMillis));
+    }
+
+    /** Registers an emitter created by the caller; subscribe() is the usual entry point. */
+    public SseEmitter attach(String userEmail, SseEmitter emitter) {
+        if (subscribers.size() >= maxSubscribers) {
+            throw new RejectedExecutionException("Too many open order streams");
+        }
+        Subscriber s = new Subscriber(normalize(userEmail), emitter, bufferSize);
+        subscribers.add(s);
+        if (s.userEmail != null) {
+            byUser.computeIfAbsent(s.userEmail, k -> ConcurrentHashMap.newKeySet()).add(s);
+        }
+        emitter.onCompletion(() -> remove(s));
+        emitter.onTimeout(() -> remove(s));
+        emitter.onError(e -> remove(s));
+
+        offer(s, SseEmitter.event().reconnectTime(3000).comment("connected"));
+        return emitter;
+    }
+
+    // --------------------------------------------------------------------
+    // PUBLISH (after commit, on the committing thread)
+    // --------------------------------------------------------------------
+    @TransactionalEventListener
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        publish(OrderStreamEvent.of(event));
+    }
+
+    @TransactionalEventListener
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        publish(OrderStreamEvent.of(event));
+    }
+
+    private void publish(OrderStreamEvent event) {
+        if (subscribers.isEmpty()) return;
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(event);
+        } catch (JsonProcessingException e) {
+            log.error("[ORDER STREAM] Could not serialize {} for {}: {}", event.type(), event.orderId(), e.getMessage());
+            return;
+        }
+        published.increment();
+
+        for (Subscriber s : subscribers) {
+            if (s.userEmail == null) offer(s, message(event, json));
+        }
+        Set<Subscriber> mine = event.userEmail() == null ? null : byUser.get(normalize(event.userEmail()));
+        if (mine != null) {
+            for (Subscriber s : mine) offer(s, message(event, json));
+        }
+    }
+
+    /** Sends a named message (e.g. kitchen prep totals) to the all-orders subscribers only. */
+    public void broadcast(String name, Object payload) {
+        if (subscribers.isEmpty()) return;
+        String json;
+        try {
+            json = objectMapper.writeValueAsString(payload);
+        } catch (JsonProcessingException e) {
+            log.error("[ORDER STREAM] Could not serialize {}: {}", name, e.getMessage());
+            return;
+        }
+        for (Subscriber s : subscribers) {
+            if (s.userEmail == null) offer(s, SseEmitter.event().name(name).data(json));
+        }
+    }
+
+    // Builders are single-use, so each subscriber gets its own around the shared JSON
+    private static SseEmitter.SseEventBuilder message(OrderStreamEvent event, String json) {
+        return SseEmitter.event().name(event.type()).data(json);
+    }
+
+    // --------------------------------------------------------------------
+    // DELIVERY (sender pool)
+    // --------------------------------------------------------------------
+    private void offer(Subscriber s, SseEmitter.SseEventBuilder event) {
+        if (s.closed) return;
+        if (!s.buffer.offer(event)) {
+            evict(s);
+            return;
+        }
+        if (s.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(s));
+        }
+    }
+
+    private void drain(Subscriber s) {
+        draining.add(s);
+        try {
+            SseEmitter.SseEventBuilder next;
+            while (!s.closed && (next = s.buffer.poll()) != null) {
+                s.sendStartedNanos = System.nanoTime();
+                s.emitter.send(next);
+                s.sendStartedNanos = 0;
+            }
+        } catch (IOException | IllegalStateException e) {
+            // Client went away; the container will also fire onError/onCompletion
+            remove(s);
+            return;
+        } finally {
+            s.sendStartedNanos = 0;
+            draining.remove(s);
+            s.draining.set(false);
+            if (s.stuck.compareAndSet(true, false)) {
+                stuckSenders.decrementAndGet();
+                resizeSenders();
+            }
+            // Evicted while this thread was sending; completing then would have blocked the evicting thread
+            if (s.closed) completeQuietly(s);
+        }
+        // An event offered between the last poll and clearing the flag would otherwise wait for the next one
+        if (!s.closed && !s.buffer.isEmpty() && s.draining.compareAndSet(false, true)) {
+            senders.execute(() -> drain(s));
+        }
+    }
+
+    private void evict(Subscriber s) {
+        if (s.closed) return;
+        evicted.increment();
+        log.info("[ORDER STREAM] Closing slow subscriber ({})", s.userEmail == null ? "all orders" : s.userEmail);
+        remove(s);
+        // complete() waits for a send in progress; the drain thread completes it when that send returns
+        if (s.sendStartedNanos == 0) completeQuietly(s);
+    }
+
+    private static void completeQuietly(Subscriber s) {
+        try {
+            s.emitter.complete();
+        } catch (RuntimeException e) {
+            // already closed
+        }
+    }
+
+    private void remove(Subscriber s) {
+        s.closed = true;
+        s.buffer.clear();
+        subscribers.remove(s);
+        if (s.userEmail != null) {
+            byUser.computeIfPresent(s.userEmail, (k, set) -> {
+                set.remove(s);
+                return set.isEmpty() ? null : set;
+            });
+        }
+    }
+
+    private static String normalize(String email) {
+        return email == null || email.isBlank() ? null : email.trim().toLowerCase(Locale.ROOT);
+    }
+
+    // --------------------------------------------------------------------
+    // WRITE TIMEOUT WATCHDOG
+    // --------------------------------------------------------------------
+    @Scheduled(fixedDelayString = "${app.orders.stream.watchdog-ms:1000}")
+    public void checkWriteTimeouts() {
+        long now = System.nanoTime();
+        for (Subscriber s : draining) {
+            long started = s.sendStartedNanos;
+            if (started == 0 || now - started < writeTimeoutNanos) continue;
+            if (!s.stuck.compareAndSet(false, true)) continue;
+            // Already closed means a full buffer evicted it first; the thread is stuck all the same
+            if (!s.closed) {
+                timedOut.increment();
+                log.info("[ORDER STREAM] Send to {} blocked for over {} ms; closing it",
+                        s.userEmail == null ? "all orders" : s.userEmail, TimeUnit.NANOSECONDS.toMillis(writeTimeoutNanos));
+                remove(s);
+            }
+            // The blocked thread is lost until its write fails, so the others get a replacement
+            stuckSenders.incrementAndGet();
+            resizeSenders();
+            // A send that returned between the two reads has already seen closed and released the thread
+            if (s.sendStartedNanos == 0 && s.stuck.compareAndSet(true, false)) {
+                stuckSenders.decrementAndGet();
+                resizeSenders();
+            }
+        }
+    }
+
+    // Core and max move together; grow max first and shrink core first so core never exceeds max
+    private synchronized void resizeSenders() {
+        int size = senderCount + stuckSenders.get();
+        if (size >= senders.getMaximumPoolSize()) {
+            senders.setMaximumPoolSize(size);
+            senders.setCorePoolSize(size);
+        } else {
+            senders.setCorePoolSize(size);
+            senders.setMaximumPoolSize(size);
+        }
+    }
+
+    // --------------------------------------------------------------------
+    // HEARTBEAT / SHUTDOWN / METRICS
+    // --------------------------------------------------------------------
+    @Scheduled(fixedDelayString = "${app.orders.stream.heartbeat-ms:15000}")
+    public void heartbeat() {
+        for (Subscriber s : subscribers) {
+            offer(s, SseEmitter.event().comment("ping"));
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        for (Subscriber s : subscribers) {
+            remove(s);
+            if (s.sendStartedNanos == 0) completeQuietly(s);
+        }
+        senders.shutdownNow();
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("subscribers", subscribers.size());
+        map.put("usersWatched", byUser.size());
+        map.put("published", published.sum());
+        map.put("evictedSlow", evicted.sum());
+        map.put("writeTimeouts", timedOut.sum());
+        map.put("stuckSenders", stuckSenders.get());
+        return map;
+    }
+}
@@ -0,0 +1,238 @@
+package services;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.UncheckedIOException;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Calendar;
+import java.util.TimeZone;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.RowCallbackHandler;
+import org.springframework.stereotype.Service;
+
+import com.fasterxml.jackson.core.JsonEncoding;
+import com.fasterxml.jackson.core.JsonFactory;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+/**
+ * Bulk order export that streams straight from a forward-only JDBC cursor to the
+ * response. Orders and their items arrive as one joined, ordered result set, so
+ * each row is written and dropped and heap use does not grow with the table.
+ */
+@Service
+public class OrderExportService {
+
+    public enum Format { NDJSON, CSV }
+
+    private static final String EXPORT_SQL =
+            "SELECT o.order_ID, o.ordered_at, o.user_email, o.name, o.address, o.status, o.payment_mode, "
+          + "o.total_amount, o.discount, o.gst, o.delivery_fee, o.final_amount, "
+          + "i.food_name, i.quantity, i.price_at_order "
+          + "FROM orders o LEFT JOIN order_items i ON i.order_id = o.order_ID ";
+
+    // MySQL sorts rows without ordered_at (older than the column default) first
+    private static final String EXPORT_ORDER = "ORDER BY o.ordered_at, o.order_ID, i.id";
+
+    private static final String CSV_HEADER =
+            "order_id,ordered_at,user_email,name,address,status,payment_mode,total_amount,discount,gst,"
+          + "delivery_fee,final_amount,food_name,quantity,price_at_order\n";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final JsonFactory jsonFactory;
+    private final ZoneId reportZone;
+    private final int fetchSize;
+
+    public OrderExportService(JdbcTemplate jdbcTemplate,
+                              ObjectMapper objectMapper,
+                              ZoneId reportZone,
+                              @Value("${app.orders.export.fetch-size:1000}") int fetchSize) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.jsonFactory = objectMapper.getFactory();
+        this.reportZone = reportZone;
+        this.fetchSize = fetchSize;
+    }
+
+    /**
+     * Writes every order placed between the (inclusive, optional) local dates. Without
+     * either date every order is exported, including rows that have no ordered_at.
+     */
+    public void export(Format format, LocalDate from, LocalDate to, OutputStream out) throws IOException {
+        Instant start = from == null ? null : from.atStartOfDay(reportZone).toInstant();
+        Instant end = to == null ? null : to.plusDays(1).atStartOfDay(reportZone).toInstant();
+
+        if (format == Format.NDJSON) {
+            try (JsonGenerator json = jsonFactory.createGenerator(out, JsonEncoding.UTF8)) {
+                stream(start, end, new NdjsonRows(json));
+            }
+        } else {
+            Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+            csv.write(CSV_HEADER);
+            stream(start, end, new CsvRows(csv));
+            csv.flush();
+        }
+    }
+
+    private void stream(Instant start, Instant end, ExportRows rows) throws IOException {
+        Calendar utc = Calendar.getInstance(TimeZone.getTimeZone("UTC"));
+        // An open side gets no predicate at all; a sentinel bound would also drop NULL ordered_at
+        String sql = EXPORT_SQL
+                + (start == null && end == null ? ""
+                        : start == null ? "WHERE o.ordered_at < ? "
+                        : end == null ? "WHERE o.ordered_at >= ? "
+                        : "WHERE o.ordered_at >= ? AND o.ordered_at < ? ")
+                + EXPORT_ORDER;
+        try {
+            jdbcTemplate.query(con -> {
+                PreparedStatement ps = con.prepareStatement(sql,
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                ps.setFetchSize(fetchSize);
+                int i = 1;
+                if (start != null) ps.setTimestamp(i++, Timestamp.from(start), utc);
+                if (end != null) ps.setTimestamp(i, Timestamp.from(end), utc);
+                return ps;
+            }, (RowCallbackHandler) rs -> {
+                try {
+                    Timestamp orderedAt = rs.getTimestamp("ordered_at", utc);
+                    rows.row(rs, orderedAt == null ? null : orderedAt.toInstant());
+                } catch (IOException e) {
+                    throw new UncheckedIOException(e);
+                }
+            });
+            rows.finish();
+        } catch (UncheckedIOException e) {
+            // Usually the client went away mid-download
+            throw e.getCause();
+        }
+    }
+
+    // --------------------------------------------------------------------
+    // ROW WRITERS
+    // --------------------------------------------------------------------
+    private interface ExportRows {
+        void row(ResultSet rs, Instant orderedAt) throws SQLException, IOException;
+
+        void finish() throws IOException;
+    }
+
+    // One JSON object per order, items nested; rows of the same order are adjacent
+    private static final class NdjsonRows implements ExportRows {
+        private final JsonGenerator json;
+        private String currentOrderId;
+
+        NdjsonRows(JsonGenerator json) {
+            this.json = json;
+        }
+
+        @Override
+        public void row(ResultSet rs, Instant orderedAt) throws SQLException, IOException {
+            String orderId = rs.getString("order_ID");
+            if (!orderId.equals(currentOrderId)) {
+                closeOrder();
+                currentOrderId = orderId;
+
+                json.writeStartObject();
+                json.writeStringField("orderId", orderId);
+                json.writeStringField("orderedAt", orderedAt == null ? null : orderedAt.toString());
+                json.writeStringField("userEmail", rs.getString("user_email"));
+                json.writeStringField("name", rs.getString("name"));
+                json.writeStringField("address", rs.getString("address"));
+                json.writeStringField("status", rs.getString("status"));
+                json.writeStringField("paymentMode", rs.getString("payment_mode"));
+                writeAmount("totalAmount", rs.getBigDecimal("total_amount"));
+                writeAmount("discount", rs.getBigDecimal("discount"));
+                writeAmount("gst", rs.getBigDecimal("gst"));
+                writeAmount("deliveryFee", rs.getBigDecimal("delivery_fee"));
+                writeAmount("finalAmount", rs.getBigDecimal("final_amount"));
+                json.writeArrayFieldStart("items");
+            }
+
+            String foodName = rs.getString("food_name");
+            if (foodName != null) {
+                json.writeStartObject();
+                json.writeStringField("foodName", foodName);
+                json.writeNumberField("quantity", rs.getInt("quantity"));
+                writeAmount("priceAtOrder", rs.getBigDecimal("price_at_order"));
+                json.writeEndObject();
+            }
+        }
+
+        @Override
+        public void finish() throws IOException {
+            closeOrder();
+            json.flush();
+        }
+
+        private void closeOrder() throws IOException {
+            if (currentOrderId == null) return;
+            json.writeEndArray();
+            json.writeEndObject();
+            json.writeRaw('\n');
+        }
+
+        private void writeAmount(String field, BigDecimal value) throws IOException {
+            if (value == null) json.writeNullField(field);
+            else json.writeNumberField(field, value);
+        }
+    }
+
+    // One CSV line per order item (orders without items get one line with empty item columns)
+    private static final class CsvRows implements ExportRows {
+        private final Writer csv;
+
+        CsvRows(Writer csv) {
+            this.csv = csv;
+        }
+
+        @Override
+        public void row(ResultSet rs, Instant orderedAt) throws SQLException, IOException {
+            csv.write(Csv.field(rs.getString("order_ID")));
+            csv.write(',');
+            if (orderedAt != null) csv.write(orderedAt.toString());
+            csv.write(',');
+            csv.write(Csv.field(rs.getString("user_email")));
+            csv.write(',');
+            csv.write(Csv.field(rs.getString("name")));
+            csv.write(',');
+            csv.write(Csv.field(rs.getString("address")));
+            csv.write(',');
+            csv.write(Csv.field(rs.getString("status")));
+            csv.write(',');
+            csv.write(Csv.field(rs.getString("payment_mode")));
+            for (String column : new String[] { "total_amount", "discount", "gst", "delivery_fee", "final_amount" }) {
+                csv.write(',');
+                csv.write(amount(rs.getBigDecimal(column)));
+            }
+            csv.write(',');
+            csv.write(Csv.field(rs.getString("food_name")));
+            csv.write(',');
+            int quantity = rs.getInt("quantity");
+            csv.write(rs.wasNull() ? "" : String.valueOf(quantity));
+            csv.write(',');
+            csv.write(amount(rs.getBigDecimal("price_at_order")));
+            csv.write('\n');
+        }
+
+        @Override
+        public void finish() throws IOException {
+            csv.flush();
+        }
+
+        private static String amount(BigDecimal value) {
+            return value == null ? "" : value.toPlainString();
+        }
+    }
+}
@@ -0,0 +1,7 @@
+package services;
+
+// Source of order_ID values; must be unique across every running instance and fit in 20 characters
+public interface OrderIdGenerator {
+
+    String nextId();
+}
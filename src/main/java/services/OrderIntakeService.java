@@ -0,0 +1,281 @@
+package services;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import dbmodel.PaymentMode;
+import dto.OrderRequestDTO;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import repository.OrderRepository;
+
+/**
+ * Asynchronous order intake (app.orders.intake.async=true).
+ *
+ * The request thread only validates the cart, hands out an order id and offers the
+ * order to a bounded queue; a full queue is reported to the caller instead of
+ * blocking. Workers drain the queue in micro-batches and place every order of a
+ * batch in one transaction. If any order in the batch fails, the batch is rolled
+ * back and its orders are placed one by one, so a single bad cart only rejects itself.
+ */
+@Service
+public class OrderIntakeService {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderIntakeService.class);
+
+    public enum IntakeStatus { QUEUED, ACCEPTED, REJECTED }
+
+    public record Intake(String orderId, IntakeStatus status, String reason, Instant updatedAt) {}
+
+    private record Pending(String orderId, OrderRequestDTO request) {}
+
+    private final OrderService orderService;
+    private final OrderIdGenerator orderIdGenerator;
+    private final OrderRepository orderRepo;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int workerCount;
+    private final int batchSize;
+    private final Duration statusTtl;
+
+    private final BlockingQueue<Pending> queue;
+    private final Map<String, Intake> statuses = new ConcurrentHashMap<>();
+    private final List<Thread> workers = new ArrayList<>();
+    private volatile boolean running;
+    private volatile boolean stopping;
+
+    private final LongAdder accepted = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder refused = new LongAdder();
+    private final LongAdder batches = new LongAdder();
+    private final LongAdder batchFallbacks = new LongAdder();
+
+    public OrderIntakeService(OrderService orderService,
+                              OrderIdGenerator orderIdGenerator,
+                              OrderRepository orderRepo,
+                              PlatformTransactionManager transactionManager,
+                              @Value("${app.orders.intake.async:false}") boolean enabled,
+                              @Value("${app.orders.intake.queue-capacity:1000}") int queueCapacity,
+                              @Value("${app.orders.intake.workers:2}") int workerCount,
+                              @Value("${app.orders.intake.batch-size:20}") int batchSize,
+                              @Value("${app.orders.intake.status-ttl-minutes:30}") long statusTtlMinutes) {
+        this.orderService = orderService;
+        this.orderIdGenerator = orderIdGenerator;
+        this.orderRepo = orderRepo;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.enabled = enabled;
+        this.workerCount = workerCount;
+        this.batchSize = batchSize;
+        this.statusTtl = Duration.ofMinutes(statusTtlMinutes);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+    }
+
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) return;
+        running = true;
+        for (int i = 1; i <= workerCount; i++) {
+            Thread t = new Thread(this::drain, "order-intake-" + i);
+            t.setDaemon(true);
+            t.start();
+            workers.add(t);
+        }
+    }
+
+    // Stop taking work, let the workers place whatever is still queued, then return
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        stopping = true;
+        running = false;
+        for (Thread t : workers) {
+            t.join(TimeUnit.SECONDS.toMillis(30));
+        }
+    }
+
+    // --------------------------------------------------------------------
+    // SUBMIT (request thread)
+    // --------------------------------------------------------------------
+    /**
+     * Called inside a transaction (idempotent placement stores its response in one), the
+     * order is only queued once that commits; if the queue filled up meanwhile it is REJECTED.
+     *
+     * @return the order id the order will be placed under
+     * @throws IllegalArgumentException if the cart cannot be an order
+     * @throws RejectedExecutionException when the intake queue is full or shutting down
+     */
+    public String submit(OrderRequestDTO request) {
+        validate(request);
+        String orderId = orderIdGenerator.nextId();
+        Pending pending = new Pending(orderId, request);
+        statuses.put(orderId, new Intake(orderId, IntakeStatus.QUEUED, null, Instant.now()));
+
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            if (stopping || queue.remainingCapacity() == 0) refuse(orderId);
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    if (stopping || !queue.offer(pending)) {
+                        reject(pending, new RejectedExecutionException("Order intake queue is full"));
+                    }
+                }
+
+                @Override
+                public void afterCompletion(int status) {
+                    if (status != STATUS_COMMITTED) statuses.remove(orderId);
+                }
+            });
+            return orderId;
+        }
+
+        if (stopping || !queue.offer(pending)) refuse(orderId);
+        return orderId;
+    }
+
+    private void refuse(String orderId) {
+        statuses.remove(orderId);
+        refused.increment();
+        throw new RejectedExecutionException("Order intake queue is full");
+    }
+
+    /**
+     * Statuses live in memory only, so once one has expired (or the node restarted) an order
+     * that made it to the database is still reported as ACCEPTED, without an updatedAt.
+     *
+     * @return null if the order id is unknown here and was never placed
+     */
+    public Intake status(String orderId) {
+        Intake intake = statuses.get(orderId);
+        if (intake != null) return intake;
+        return orderRepo.existsById(orderId) ? new Intake(orderId, IntakeStatus.ACCEPTED, null, null) : null;
+    }
+
+    private static void validate(OrderRequestDTO request) {
+        if (request.getUserEmail() == null || request.getUserEmail().isBlank()) {
+            throw new IllegalArgumentException("userEmail is required");
+        }
+        if (request.getItems() == null || request.getItems().isEmpty()) {
+            throw new IllegalArgumentException("Order has no items");
+        }
+        for (OrderRequestDTO.OrderItemDTO item : request.getItems()) {
+            if (item.getFoodName() == null || item.getQuantity() <= 0) {
+                throw new IllegalArgumentException("Every item needs a foodName and a positive quantity");
+            }
+        }
+        try {
+            PaymentMode.valueOf(String.valueOf(request.getPaymentMode()).toUpperCase());
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid paymentMode: " + request.getPaymentMode());
+        }
+    }
+
+    // --------------------------------------------------------------------
+    // WORKERS (micro-batches)
+    // --------------------------------------------------------------------
+    private void drain() {
+        List<Pending> batch = new ArrayList<>(batchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                Pending first = queue.poll(200, TimeUnit.MILLISECONDS);
+                if (first == null) continue;
+                batch.add(first);
+                queue.drainTo(batch, batchSize - 1);
+                process(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                return;
+            } catch (RuntimeException e) {
+                log.error("[ORDER INTAKE] Batch of {} failed unexpectedly: {}", batch.size(), e.getMessage());
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    void process(List<Pending> batch) {
+        batches.increment();
+        try {
+            transactionTemplate.executeWithoutResult(tx -> {
+                for (Pending p : batch) {
+                    orderService.placeOrder(p.orderId(), p.request());
+                }
+            });
+            for (Pending p : batch) accept(p);
+            return;
+        } catch (RuntimeException e) {
+            if (batch.size() == 1) {
+                reject(batch.get(0), e);
+                return;
+            }
+            batchFallbacks.increment();
+        }
+
+        // Something in the batch failed and everything was rolled back: place each order alone
+        for (Pending p : batch) {
+            try {
+                transactionTemplate.executeWithoutResult(tx -> orderService.placeOrder(p.orderId(), p.request()));
+                accept(p);
+            } catch (RuntimeException e) {
+                reject(p, e);
+            }
+        }
+    }
+
+    private void accept(Pending p) {
+        statuses.put(p.orderId(), new Intake(p.orderId(), IntakeStatus.ACCEPTED, null, Instant.now()));
+        accepted.increment();
+    }
+
+    private void reject(Pending p, RuntimeException e) {
+        String reason = e instanceof InsufficientInventoryException || e instanceof IllegalArgumentException
+                || e instanceof RejectedExecutionException ? e.getMessage() : "Order could not be placed";
+        statuses.put(p.orderId(), new Intake(p.orderId(), IntakeStatus.REJECTED, reason, Instant.now()));
+        rejected.increment();
+        log.warn("[ORDER INTAKE] {} rejected: {}", p.orderId(), e.getMessage());
+    }
+
+    // --------------------------------------------------------------------
+    // STATUS TTL / METRICS
+    // --------------------------------------------------------------------
+    @Scheduled(fixedDelayString = "${app.orders.intake.cleanup-interval-ms:60000}")
+    public void evictExpired() {
+        Instant cutoff = Instant.now().minus(statusTtl);
+        statuses.values().removeIf(i -> i.status() != IntakeStatus.QUEUED && i.updatedAt().isBefore(cutoff));
+    }
+
+    public Map<String, Object> stats() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("enabled", enabled);
+        map.put("queued", queue.size());
+        map.put("remainingCapacity", queue.remainingCapacity());
+        map.put("accepted", accepted.sum());
+        map.put("rejected", rejected.sum());
+        map.put("refusedQueueFull", refused.sum());
+        map.put("batches", batches.sum());
+        map.put("batchFallbacks", batchFallbacks.sum());
+        return map;
+    }
+}
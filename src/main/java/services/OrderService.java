@@ -1,23 +1,36 @@
 package services;
 
 import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
 import java.time.Instant;
-import java.util.Comparator;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.Base64;
+import java.util.Collection;
+import java.util.HashMap;
 import java.util.List;
-import java.util.UUID;
-import java.util.stream.Collectors;
+import java.util.Map;
+import java.util.SortedMap;
+import java.util.TreeMap;
 
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
-import dbmodel.FoodItem;
 import dbmodel.Order;
 import dbmodel.OrderItem;
 import dbmodel.OrderStatus;
 import dbmodel.PaymentMode;
+import dto.OrderPageDTO;
+import dto.OrderPlacedEvent;
 import dto.OrderRequestDTO;
 import dto.OrderResponseDTO;
-import repository.FoodItemRepository;
+import dto.OrderStatusChangedEvent;
 import repository.OrderItemRepository;
+import repository.OrderItemRow;
 import repository.OrderRepository;
 
 @Service
@@ -25,26 +38,41 @@ public class OrderService {
 
     private final OrderRepository orderRepo;
     private final OrderItemRepository orderItemRepo;
-    private final EmailService emailService;
-    private final FoodItemRepository foodItemRepo;
+    private final InventoryService inventoryService;
+    private final SalesRollupService rollupService;
+    private final ApplicationEventPublisher events;
+    private final ZoneId reportZone;
+    private final OrderIdGenerator orderIdGenerator;
+
+    public static final int MAX_PAGE_SIZE = 200;
+
+    // Order ids per item IN query when attaching items to projected orders
+    private static final int ITEM_ID_CHUNK = 1000;
 
     public OrderService(OrderRepository orderRepo,
                         OrderItemRepository orderItemRepo,
-                        EmailService emailService,
-                        FoodItemRepository foodItemRepo) {
+                        InventoryService inventoryService,
+                        SalesRollupService rollupService,
+                        ApplicationEventPublisher events,
+                        ZoneId reportZone,
+                        OrderIdGenerator orderIdGenerator) {
         this.orderRepo = orderRepo;
         this.orderItemRepo = orderItemRepo;
-        this.emailService = emailService;
-        this.foodItemRepo = foodItemRepo;
-    }
-
-    private String generateOrderId() {
-        return "ORD-" + UUID.randomUUID().toString().substring(0, 6).toUpperCase();
+        this.inventoryService = inventoryService;
+        this.rollupService = rollupService;
+        this.events = events;
+        this.reportZone = reportZone;
+        this.orderIdGenerator = orderIdGenerator;
     }
 
+    @Transactional
     public String placeOrder(OrderRequestDTO request) {
-        String orderId = generateOrderId();
+        return placeOrder(orderIdGenerator.nextId(), request);
+    }
 
+    // Same as placeOrder(request) with an id handed out earlier (async intake); joins the caller's transaction
+    @Transactional
+    public String placeOrder(String orderId, OrderRequestDTO request) {
         Order order = new Order();
         order.setOrderId(orderId);
         order.setUserEmail(request.getUserEmail());
@@ -60,91 +88,143 @@ public class OrderService {
 
         // ✅ Set orderedAt in code so it's never null
         order.setOrderedAt(Instant.now());
+        order.setStatusChangedAt(order.getOrderedAt());
 
-        orderRepo.save(order);
+        // Take stock for the whole cart first; a short line throws and nothing is written
+        inventoryService.take(quantitiesByFood(request));
 
+        List<OrderPlacedEvent.Item> placedItems = new ArrayList<>(request.getItems().size());
         for (OrderRequestDTO.OrderItemDTO itemDTO : request.getItems()) {
-            // Decrease inventory logic
-            FoodItem foodItem = foodItemRepo.findByName(itemDTO.getFoodName());
-            if (foodItem != null) {
-                int currentInventory = foodItem.getInventory();
-                if (currentInventory >= itemDTO.getQuantity()) {
-                    foodItem.setInventory(currentInventory - itemDTO.getQuantity());
-                    foodItemRepo.save(foodItem);
-                } else {
-                    throw new RuntimeException("Insufficient inventory for item: " + itemDTO.getFoodName());
-                }
-            }
-
             OrderItem item = new OrderItem();
             item.setOrder(order);
             item.setFoodName(itemDTO.getFoodName()); // save name permanently
             item.setQuantity(itemDTO.getQuantity());
             item.setPriceAtOrder(BigDecimal.valueOf(itemDTO.getPriceAtOrder()));
-            orderItemRepo.save(item);
+            order.getItems().add(item);
+            placedItems.add(new OrderPlacedEvent.Item(item.getFoodName(), item.getQuantity()));
         }
 
+        // Items cascade from the order and go out as one JDBC batch at flush
+        orderRepo.save(order);
+
+        rollupService.recordPlaced(order);
+        events.publishEvent(new OrderPlacedEvent(orderId, order.getUserEmail(), order.getOrderedAt(),
+                order.getStatus(), order.getPaymentMode(), order.getFinalAmount(), order.getName(), order.getAddress(),
+                List.copyOf(placedItems)));
+
         return orderId;
     }
 
+    // Same dish on several cart lines is taken as one decrement; sorted so row locks are always taken in name order
+    private static SortedMap<String, Integer> quantitiesByFood(OrderRequestDTO request) {
+        SortedMap<String, Integer> quantities = new TreeMap<>();
+        for (OrderRequestDTO.OrderItemDTO itemDTO : request.getItems()) {
+            quantities.merge(itemDTO.getFoodName(), itemDTO.getQuantity(), Integer::sum);
+        }
+        return quantities;
+    }
+
+    @Transactional(readOnly = true)
     public List<OrderResponseDTO> getAllOrdersForAdmin() {
-        List<Order> orders = orderRepo.findAll();
-
-        // ✅ Safe sorting: handles any null orderedAt (old rows) by putting them last
-        orders.sort(
-            Comparator.comparing(
-                Order::getOrderedAt,
-                Comparator.nullsLast(Comparator.naturalOrder())
-            ).reversed()
-        );
-
-        return orders.stream().map(order -> {
-            OrderResponseDTO response = new OrderResponseDTO(order);
-            response.setOrderId(order.getOrderId());
-            response.setUserEmail(order.getUserEmail());
-            response.setAddress(order.getAddress());
-            response.setName(order.getName());
-            response.setStatus(order.getStatus().name());
-            response.setPaymentMode(order.getPaymentMode().name());
-            response.setOrderedAt(order.getOrderedAt());
-            response.setFinalAmount(order.getFinalAmount().doubleValue());
-
-            List<OrderResponseDTO.OrderItemDTO> itemDTOs = order.getItems().stream()
-                .map(item -> new OrderResponseDTO.OrderItemDTO(
-                    item.getFoodName(),
-                    item.getQuantity(),
-                    item.getPriceAtOrder().doubleValue()
-                ))
-                .collect(Collectors.toList());
-
-            response.setItems(itemDTOs);
-            return response;
-        }).collect(Collectors.toList());
+        // Newest first, sorted by the database; MySQL puts any null orderedAt (old rows) last
+        return attachItems(orderRepo.findAllResponses());
+    }
+
+    /**
+     * One page of the admin listing, newest first. The cursor is the (orderedAt, orderId)
+     * of the last row already returned, so every page is an index range seek no matter
+     * how deep it is. Filters are optional; dates are inclusive local days in the report zone.
+     *
+     * @throws IllegalArgumentException on an unknown status/payment mode or a malformed cursor
+     */
+    @Transactional(readOnly = true)
+    public OrderPageDTO getOrdersPageForAdmin(String status, String paymentMode, String email,
+                                              LocalDate from, LocalDate to, String cursor, int size) {
+        int pageSize = Math.max(1, Math.min(size, MAX_PAGE_SIZE));
+
+        String[] key = cursor == null || cursor.isBlank() ? null : decodeCursor(cursor);
+
+        // Fetch one extra row to learn whether another page exists without a COUNT
+        List<OrderResponseDTO> rows = orderRepo.findResponsesPage(
+                status == null || status.isBlank() ? null : OrderStatus.valueOf(status.toUpperCase()),
+                paymentMode == null || paymentMode.isBlank() ? null : PaymentMode.valueOf(paymentMode.toUpperCase()),
+                email == null || email.isBlank() ? null : email,
+                from == null ? null : from.atStartOfDay(reportZone).toInstant(),
+                to == null ? null : to.plusDays(1).atStartOfDay(reportZone).toInstant(),
+                key == null ? null : Instant.parse(key[0]),
+                key == null ? null : key[1],
+                Limit.of(pageSize + 1));
+
+        boolean hasMore = rows.size() > pageSize;
+        List<OrderResponseDTO> page = hasMore ? new ArrayList<>(rows.subList(0, pageSize)) : rows;
+        String nextCursor = null;
+        if (hasMore) {
+            OrderResponseDTO last = page.get(page.size() - 1);
+            nextCursor = encodeCursor(last.getOrderedAt(), last.getOrderId());
+        }
+        return new OrderPageDTO(attachItems(page), nextCursor);
+    }
+
+    private static String encodeCursor(Instant orderedAt, String orderId) {
+        String raw = orderedAt + "|" + orderId;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
     }
 
+    private static String[] decodeCursor(String cursor) {
+        String raw;
+        try {
+            raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+        } catch (IllegalArgumentException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        int sep = raw.indexOf('|');
+        if (sep <= 0 || sep == raw.length() - 1) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        try {
+            Instant.parse(raw.substring(0, sep));
+        } catch (DateTimeParseException e) {
+            throw new IllegalArgumentException("Invalid cursor");
+        }
+        return new String[] { raw.substring(0, sep), raw.substring(sep + 1) };
+    }
+
+    /**
+     * Moves one order along the OrderStatus transition table. The write is a
+     * compare-and-set on the status and version that were read, so of two admins
+     * updating the same order one wins and the other gets a conflict right away
+     * instead of overwriting it (or waiting on a row lock).
+     *
+     * @throws OrderStatusConflictException if the order is DELIVERED, the transition is not
+     *         allowed, or the order changed after it was read
+     */
+    @Transactional
     public String updateOrderStatus(String orderId, String status) {
         Order order = orderRepo.findByOrderId(orderId).orElse(null);
         if (order == null)
             return "Order not found with ID: " + orderId;
 
         if (order.getStatus().equals(OrderStatus.DELIVERED)) {
-            return "Order already delivered. Cannot update further.";
+            throw new OrderStatusConflictException("Order already delivered. Cannot update further.");
         }
 
         try {
             OrderStatus newStatus = OrderStatus.valueOf(status.toUpperCase());
-            order.setStatus(newStatus);
-            orderRepo.save(order);
-
-            // SEND INVOICE ONLY WHEN ORDER GETS DELIVERED
-            if (newStatus == OrderStatus.DELIVERED) {
-                // Convert to DTO
-                OrderResponseDTO dto = new OrderResponseDTO(order);
-                dto.setName(order.getName());
-
-                // Send invoice mail
-                emailService.sendOrderInvoice(dto);
+            OrderStatus oldStatus = order.getStatus();
+            if (!oldStatus.canMoveTo(newStatus)) {
+                throw new OrderStatusConflictException(oldStatus == newStatus
+                        ? "Order is already " + newStatus
+                        : "Cannot move an order from " + oldStatus + " to " + newStatus);
+            }
+            Instant oldSince = order.getStatusChangedAt();
+            Instant now = Instant.now();
+            if (orderRepo.compareAndSetStatus(orderId, oldStatus, order.getVersion(), newStatus, now) == 0) {
+                throw new OrderStatusConflictException("Order " + orderId + " was updated by someone else; reload and try again");
             }
+            rollupService.recordStatusChange(order, oldStatus, newStatus);
+            // A DELIVERED event also queues the invoice (InvoiceDispatcher, after commit)
+            events.publishEvent(new OrderStatusChangedEvent(orderId, order.getUserEmail(), order.getOrderedAt(),
+                    order.getPaymentMode(), order.getFinalAmount(), oldStatus, newStatus, now, oldSince));
 
             return "Order Status Updated to " + newStatus;
 
@@ -153,10 +233,38 @@ public class OrderService {
         }
     }
 
+    @Transactional(readOnly = true)
     public List<OrderResponseDTO> getOrdersByUserEmail(String email) {
-        List<Order> orders = orderRepo.findByUserEmailOrderByOrderedAtDesc(email);
-        return orders.stream()
-            .map(OrderResponseDTO::new)
-            .collect(Collectors.toList());
+        return attachItems(orderRepo.findResponsesByUserEmail(email));
     }
+
+    // Kitchen queue rebuild: every order in the given statuses, oldest first, with items
+    @Transactional(readOnly = true)
+    public List<OrderResponseDTO> getOrdersByStatuses(Collection<OrderStatus> statuses) {
+        return attachItems(orderRepo.findResponsesByStatusIn(statuses));
+    }
+
+    @Transactional(readOnly = true)
+    public List<OrderResponseDTO> getOrdersByIds(Collection<String> orderIds) {
+        return attachItems(orderRepo.findResponsesByOrderIdIn(orderIds));
+    }
+
+    // Fills each DTO's items from plain item rows, ITEM_ID_CHUNK order ids per IN query
+    private List<OrderResponseDTO> attachItems(List<OrderResponseDTO> orders) {
+        Map<String, OrderResponseDTO> byId = new HashMap<>(orders.size() * 2);
+        for (OrderResponseDTO order : orders) {
+            byId.put(order.getOrderId(), order);
+        }
+
+        List<String> ids = new ArrayList<>(byId.keySet());
+        for (int from = 0; from < ids.size(); from += ITEM_ID_CHUNK) {
+            List<String> chunk = ids.subList(from, Math.min(from + ITEM_ID_CHUNK, ids.size()));
+            for (OrderItemRow row : orderItemRepo.findRowsByOrderIds(chunk)) {
+                byId.get(row.getOrderId()).getItems().add(new OrderResponseDTO.OrderItemDTO(
+                        row.getFoodName(), row.getQuantity(), row.getPriceAtOrder().doubleValue()));
+            }
+        }
+        return orders;
+    }
+
 }
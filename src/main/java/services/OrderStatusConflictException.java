@@ -0,0 +1,12 @@
+package services;
+
+// Thrown when a status change is not allowed from the order's current status, or the order
+// changed between being read and the compare-and-set UPDATE; nothing was written
+public class OrderStatusConflictException extends RuntimeException {
+
+    private static final long serialVersionUID = 1L;
+
+    public OrderStatusConflictException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,196 @@
+package services;
+
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.EnumSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import dbmodel.OrderStatus;
+import dto.DishPrepDTO;
+import dto.KitchenTicket;
+import repository.DishQuantity;
+import repository.OrderItemRepository;
+
+/**
+ * Running per-dish quantities across open orders ("14 biryanis pending").
+ *
+ * KitchenQueueService reports every ticket that enters or leaves ORDERED /
+ * PREPARING, and the matching counters are adjusted in place. Totals are pushed
+ * to the admin order stream at most once per push interval, and a periodic
+ * reconciliation compares them with a GROUP BY over order_items, correcting a
+ * counter only when the same drift is seen twice in a row (a single mismatch can
+ * be an order that committed between the query and the comparison).
+ */
+@Service
+public class PrepAggregator {
+
+    private static final Logger log = LoggerFactory.getLogger(PrepAggregator.class);
+
+    public static final String STREAM_EVENT = "PREP";
+
+    // Statuses whose dishes still have to be cooked
+    public static final Set<OrderStatus> PREP =
+            Collections.unmodifiableSet(EnumSet.of(OrderStatus.ORDERED, OrderStatus.PREPARING));
+
+    private record Key(String foodName, OrderStatus status) {}
+
+    private final OrderItemRepository orderItemRepo;
+    private final OrderEventStream eventStream;
+
+    private final Map<Key, LongAdder> counters = new ConcurrentHashMap<>();
+    // Updates share the read lock (LongAdder handles them); resets and corrections take the write lock
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+    private volatile boolean loaded;
+    private volatile boolean dirty;
+
+    // Counter values that disagreed with the database on the last reconciliation
+    private Map<Key, Long> suspected = new HashMap<>();
+
+    public PrepAggregator(OrderItemRepository orderItemRepo, OrderEventStream eventStream) {
+        this.orderItemRepo = orderItemRepo;
+        this.eventStream = eventStream;
+    }
+
+    // --------------------------------------------------------------------
+    // UPDATES (called by KitchenQueueService)
+    // --------------------------------------------------------------------
+    public void reset(Collection<KitchenTicket> openTickets) {
+        lock.writeLock().lock();
+        try {
+            counters.clear();
+            suspected = new HashMap<>();
+            openTickets.forEach(this::add);
+            loaded = true;
+            dirty = true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    public void add(KitchenTicket ticket) {
+        apply(ticket, 1);
+    }
+
+    public void remove(KitchenTicket ticket) {
+        apply(ticket, -1);
+    }
+
+    private void apply(KitchenTicket ticket, int sign) {
+        if (!PREP.contains(ticket.status())) return;
+        lock.readLock().lock();
+        try {
+            for (KitchenTicket.Line line : ticket.items()) {
+                counters.computeIfAbsent(new Key(line.foodName(), ticket.status()), k -> new LongAdder())
+                        .add((long) sign * line.quantity());
+            }
+            dirty = true;
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // --------------------------------------------------------------------
+    // READS
+    // --------------------------------------------------------------------
+    /** Dishes with anything open, largest total first. */
+    public List<DishPrepDTO> snapshot() {
+        Map<String, long[]> byDish = new HashMap<>();
+        counters.forEach((key, adder) -> {
+            long[] counts = byDish.computeIfAbsent(key.foodName(), k -> new long[2]);
+            counts[key.status() == OrderStatus.ORDERED ? 0 : 1] += adder.sum();
+        });
+
+        List<DishPrepDTO> dishes = new ArrayList<>(byDish.size());
+        byDish.forEach((foodName, counts) -> {
+            if (counts[0] != 0 || counts[1] != 0) {
+                dishes.add(new DishPrepDTO(foodName, counts[0], counts[1], counts[0] + counts[1]));
+            }
+        });
+        dishes.sort(Comparator.comparingLong(DishPrepDTO::total).reversed()
+                .thenComparing(DishPrepDTO::foodName));
+        return dishes;
+    }
+
+    public boolean isLoaded() {
+        return loaded;
+    }
+
+    // Coalesces bursts of transitions into one stream message per interval
+    @Scheduled(fixedDelayString = "${app.kitchen.prep.push-interval-ms:1000}")
+    public void push() {
+        if (!dirty || !loaded) return;
+        dirty = false;
+        eventStream.broadcast(STREAM_EVENT, snapshot());
+    }
+
+    // --------------------------------------------------------------------
+    // RECONCILIATION AGAINST order_items
+    // --------------------------------------------------------------------
+    @Scheduled(fixedDelayString = "${app.kitchen.prep.reconcile-interval-ms:300000}",
+               initialDelayString = "${app.kitchen.prep.reconcile-interval-ms:300000}")
+    public synchronized Map<String, Object> reconcile() {
+        Map<String, Object> result = new LinkedHashMap<>();
+        if (!loaded) {
+            result.put("skipped", "kitchen queue not loaded yet");
+            return result;
+        }
+
+        Map<Key, Long> expected = new HashMap<>();
+        for (DishQuantity row : orderItemRepo.sumQuantitiesByStatus(PREP)) {
+            expected.put(new Key(row.getFoodName(), row.getStatus()), row.getQuantity());
+        }
+        Set<Key> keys = new HashSet<>(expected.keySet());
+        keys.addAll(counters.keySet());
+
+        Map<Key, Long> drifted = new HashMap<>();
+        int corrected = 0;
+        for (Key key : keys) {
+            long want = expected.getOrDefault(key, 0L);
+            LongAdder adder = counters.get(key);
+            long have = adder == null ? 0 : adder.sum();
+            if (want == have) continue;
+
+            if (Long.valueOf(have).equals(suspected.get(key)) && correct(key, have, want)) {
+                corrected++;
+                log.warn("[PREP] {} {} was {}, database says {}; corrected", key.foodName(), key.status(), have, want);
+            } else {
+                drifted.put(key, have);
+            }
+        }
+        suspected = drifted;
+        if (corrected > 0) dirty = true;
+
+        result.put("countersChecked", keys.size());
+        result.put("pendingDrift", drifted.size());
+        result.put("corrected", corrected);
+        return result;
+    }
+
+    // Only if the counter has not moved since it was compared, so no concurrent update is lost
+    private boolean correct(Key key, long have, long want) {
+        lock.writeLock().lock();
+        try {
+            LongAdder adder = counters.computeIfAbsent(key, k -> new LongAdder());
+            if (adder.sum() != have) return false;
+            adder.add(want - have);
+            return true;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+}
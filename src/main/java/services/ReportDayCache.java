@@ -0,0 +1,159 @@
+package services;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.annotation.Order;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import dto.OrderPlacedEvent;
+import dto.OrderStatusChangedEvent;
+
+/**
+ * Per-day partial report results for days that are already over.
+ *
+ * Entries are keyed by (report type, local day, zone). Today is never cached, and a
+ * status change on an older order evicts only the day that order belongs to.
+ */
+@Service
+public class ReportDayCache {
+
+    public static final String BREAKDOWN = "breakdown";
+    public static final String ITEMS = "items";
+
+    private record Key(String type, LocalDate day, ZoneId zone) {}
+
+    private record DayZone(LocalDate day, ZoneId zone) {}
+
+    private final ReportEngine reportEngine;
+    private final int maxEntries;
+
+    private final Map<Key, Object> entries;
+
+    // Bumped on every invalidation; a computation only stores its result if the
+    // generation it started with is still current
+    private final Map<DayZone, Long> generations = new ConcurrentHashMap<>();
+    private final Set<ZoneId> zones = ConcurrentHashMap.newKeySet();
+
+    private final LongAdder hits = new LongAdder();
+    private final LongAdder misses = new LongAdder();
+    private final LongAdder liveDays = new LongAdder();
+    private final LongAdder invalidations = new LongAdder();
+
+    public ReportDayCache(ReportEngine reportEngine,
+                          @Value("${app.reports.day-cache.max-entries:5000}") int maxEntries) {
+        this.reportEngine = reportEngine;
+        this.maxEntries = maxEntries;
+        this.entries = new LinkedHashMap<>(256, 0.75f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(Map.Entry<Key, Object> eldest) {
+                return size() > ReportDayCache.this.maxEntries;
+            }
+        };
+    }
+
+    // --------------------------------------------------------------------
+    // RANGE ASSEMBLY
+    // --------------------------------------------------------------------
+    public OrderBreakdown breakdown(LocalDate from, LocalDate to, ZoneId zone) {
+        LocalDate today = LocalDate.now(zone);
+        OrderBreakdown result = new OrderBreakdown();
+
+        for (LocalDate day = from; !day.isAfter(to) && !day.isAfter(today); day = day.plusDays(1)) {
+            Instant start = day.atStartOfDay(zone).toInstant();
+            Instant end = day.plusDays(1).atStartOfDay(zone).toInstant();
+            Supplier<OrderBreakdown> compute = () -> reportEngine.breakdown(start, end, zone);
+
+            if (day.equals(today)) {
+                liveDays.increment();
+                result.merge(compute.get());
+            } else {
+                result.merge(closedDay(BREAKDOWN, day, zone, compute));
+            }
+        }
+        return result;
+    }
+
+    /** Returns the cached value for a closed day, computing and storing it on a miss. */
+    @SuppressWarnings("unchecked")
+    public <T> T closedDay(String type, LocalDate day, ZoneId zone, Supplier<T> compute) {
+        Key key = new Key(type, day, zone);
+        synchronized (entries) {
+            Object cached = entries.get(key);
+            if (cached != null) {
+                hits.increment();
+                return (T) cached;
+            }
+        }
+
+        misses.increment();
+        zones.add(zone);
+        DayZone dz = new DayZone(day, zone);
+        Long generation = generations.getOrDefault(dz, 0L);
+        T value = compute.get();
+
+        synchronized (entries) {
+            if (generation.equals(generations.getOrDefault(dz, 0L))) {
+                entries.put(key, value);
+            }
+        }
+        return value;
+    }
+
+    // --------------------------------------------------------------------
+    // INVALIDATION (ordered after OrderAnalyticsCache has applied the event)
+    // --------------------------------------------------------------------
+    @Order(10)
+    @TransactionalEventListener
+    public void onOrderPlaced(OrderPlacedEvent event) {
+        invalidate(event.orderedAt());
+    }
+
+    @Order(10)
+    @TransactionalEventListener
+    public void onStatusChanged(OrderStatusChangedEvent event) {
+        invalidate(event.orderedAt());
+    }
+
+    private void invalidate(Instant orderedAt) {
+        if (orderedAt == null) return;
+        for (ZoneId zone : zones) {
+            LocalDate day = orderedAt.atZone(zone).toLocalDate();
+            if (!day.isBefore(LocalDate.now(zone))) continue;
+
+            DayZone dz = new DayZone(day, zone);
+            synchronized (entries) {
+                generations.merge(dz, 1L, Long::sum);
+                entries.keySet().removeIf(k -> k.day().equals(day) && k.zone().equals(zone));
+            }
+            invalidations.increment();
+        }
+    }
+
+    // --------------------------------------------------------------------
+    // METRICS
+    // --------------------------------------------------------------------
+    public Map<String, Object> stats() {
+        Map<String, Object> map = new LinkedHashMap<>();
+        synchronized (entries) {
+            map.put("entries", entries.size());
+        }
+        map.put("maxEntries", maxEntries);
+        map.put("hits", hits.sum());
+        map.put("misses", misses.sum());
+        map.put("liveDays", liveDays.sum());
+        map.put("invalidations", invalidations.sum());
+        return map;
+    }
+}
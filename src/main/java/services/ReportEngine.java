@@ -0,0 +1,197 @@
+package services;
+
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.ZoneId;
+import java.time.zone.ZoneOffsetTransition;
+import java.time.zone.ZoneRules;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+import java.util.stream.Stream;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import dbmodel.OrderStatus;
+import repository.OrderFact;
+import repository.OrderRepository;
+
+/**
+ * Single-pass aggregation over the columnar order cache.
+ *
+ * Ranges larger than app.reports.parallel-threshold rows are split with
+ * fork/join; each leaf fills its own OrderBreakdown and the results are merged.
+ */
+@Service
+public class ReportEngine {
+
+    // Rows per fork/join leaf once a range goes parallel
+    private static final int LEAF_ROWS = 16_384;
+
+    private final OrderAnalyticsCache analyticsCache;
+    private final OrderRepository orderRepo;
+    private final TransactionTemplate readOnlyTx;
+    private final int parallelThreshold;
+
+    public ReportEngine(OrderAnalyticsCache analyticsCache,
+                        OrderRepository orderRepo,
+                        PlatformTransactionManager transactionManager,
+                        @Value("${app.reports.parallel-threshold:100000}") int parallelThreshold) {
+        this.analyticsCache = analyticsCache;
+        this.orderRepo = orderRepo;
+        this.readOnlyTx = new TransactionTemplate(transactionManager);
+        this.readOnlyTx.setReadOnly(true);
+        this.parallelThreshold = parallelThreshold;
+    }
+
+    /** Aggregates every order with from <= orderedAt < to; hours are local to zone. */
+    public OrderBreakdown breakdown(Instant from, Instant to, ZoneId zone) {
+        if (!analyticsCache.isLoaded()) {
+            return breakdownFromDatabase(from, to, zone);
+        }
+        ZoneRules rules = zone.getRules();
+        return analyticsCache.scan(from, to, (c, lo, hi) -> {
+            if (hi - lo < parallelThreshold) {
+                return scanRange(c, lo, hi, rules);
+            }
+            return ForkJoinPool.commonPool().invoke(new BreakdownTask(c, lo, hi, rules));
+        });
+    }
+
+    // Same single pass, fed by a forward-only cursor while the cache is still loading
+    private OrderBreakdown breakdownFromDatabase(Instant from, Instant to, ZoneId zone) {
+        ZoneRules rules = zone.getRules();
+        return readOnlyTx.execute(tx -> {
+            OrderBreakdown result = new OrderBreakdown();
+            try (Stream<OrderFact> facts = orderRepo.streamFactsBetween(from, to)) {
+                facts.forEach(f -> {
+                    long seconds = f.getOrderedAt().getEpochSecond();
+                    int offset = rules.getOffset(f.getOrderedAt()).getTotalSeconds();
+                    long paise = f.getFinalAmount().movePointRight(2)
+                            .setScale(0, RoundingMode.HALF_UP).longValue();
+                    result.add(f.getStatus().ordinal(), f.getPaymentMode().ordinal(),
+                            hourOf(seconds, offset), paise);
+                });
+            }
+            return result;
+        });
+    }
+
+    // --------------------------------------------------------------------
+    // TIME SERIES (one pass, rows walked against sorted bucket boundaries)
+    // --------------------------------------------------------------------
+    public static final int SERIES_ORDERS = 0;
+    public static final int SERIES_PAISE = 1;
+    public static final int SERIES_DELIVERED = 2;
+    public static final int SERIES_DELIVERED_PAISE = 3;
+
+    /**
+     * Buckets orders by the epoch-second boundaries (n + 1 ascending values for n
+     * buckets). Returns [SERIES_ORDERS | SERIES_PAISE | SERIES_DELIVERED | SERIES_DELIVERED_PAISE][n].
+     */
+    public long[][] series(long[] boundaries) {
+        int buckets = boundaries.length - 1;
+        long[][] out = new long[4][buckets];
+        Instant from = Instant.ofEpochSecond(boundaries[0]);
+        Instant to = Instant.ofEpochSecond(boundaries[buckets]);
+        int delivered = OrderStatus.DELIVERED.ordinal();
+
+        if (!analyticsCache.isLoaded()) {
+            readOnlyTx.executeWithoutResult(tx -> {
+                try (Stream<OrderFact> facts = orderRepo.streamFactsBetween(from, to)) {
+                    int[] b = { 0 };
+                    facts.forEach(f -> {
+                        long seconds = f.getOrderedAt().getEpochSecond();
+                        while (seconds >= boundaries[b[0] + 1]) b[0]++;
+                        long paise = f.getFinalAmount().movePointRight(2)
+                                .setScale(0, RoundingMode.HALF_UP).longValue();
+                        countInto(out, b[0], f.getStatus().ordinal() == delivered, paise);
+                    });
+                }
+            });
+            return out;
+        }
+
+        return analyticsCache.scan(from, to, (c, lo, hi) -> {
+            int b = 0;
+            for (int i = lo; i < hi; i++) {
+                while (c.orderedAt[i] >= boundaries[b + 1]) b++;
+                countInto(out, b, c.status[i] == delivered, c.amountPaise[i]);
+            }
+            return out;
+        });
+    }
+
+    private static void countInto(long[][] out, int bucket, boolean delivered, long paise) {
+        out[SERIES_ORDERS][bucket]++;
+        out[SERIES_PAISE][bucket] += paise;
+        if (delivered) {
+            out[SERIES_DELIVERED][bucket]++;
+            out[SERIES_DELIVERED_PAISE][bucket] += paise;
+        }
+    }
+
+    // --------------------------------------------------------------------
+    // SEQUENTIAL KERNEL
+    // --------------------------------------------------------------------
+    private static OrderBreakdown scanRange(OrderAnalyticsCache.Columns c, int lo, int hi, ZoneRules rules) {
+        OrderBreakdown result = new OrderBreakdown();
+        if (lo >= hi) return result;
+
+        // Rows are sorted, so the UTC offset only changes at the (rare) DST transitions
+        Instant first = Instant.ofEpochSecond(c.orderedAt[lo]);
+        int offset = rules.getOffset(first).getTotalSeconds();
+        ZoneOffsetTransition next = rules.nextTransition(first);
+        long nextChange = next == null ? Long.MAX_VALUE : next.toEpochSecond();
+
+        for (int i = lo; i < hi; i++) {
+            long seconds = c.orderedAt[i];
+            if (seconds >= nextChange) {
+                Instant at = Instant.ofEpochSecond(seconds);
+                offset = rules.getOffset(at).getTotalSeconds();
+                next = rules.nextTransition(at);
+                nextChange = next == null ? Long.MAX_VALUE : next.toEpochSecond();
+            }
+            result.add(c.status[i], c.paymentMode[i], hourOf(seconds, offset), c.amountPaise[i]);
+        }
+        return result;
+    }
+
+    private static int hourOf(long epochSeconds, int offsetSeconds) {
+        return (int) (Math.floorMod(epochSeconds + offsetSeconds, 86_400L) / 3_600);
+    }
+
+    // --------------------------------------------------------------------
+    // FORK/JOIN SPLIT
+    // --------------------------------------------------------------------
+    private static final class BreakdownTask extends RecursiveTask<OrderBreakdown> {
+
+        private static final long serialVersionUID = 1L;
+
+        private final transient OrderAnalyticsCache.Columns columns;
+        private final int lo;
+        private final int hi;
+        private final transient ZoneRules rules;
+
+        BreakdownTask(OrderAnalyticsCache.Columns columns, int lo, int hi, ZoneRules rules) {
+            this.columns = columns;
+            this.lo = lo;
+            this.hi = hi;
+            this.rules = rules;
+        }
+
+        @Override
+        protected OrderBreakdown compute() {
+            if (hi - lo <= LEAF_ROWS) {
+                return scanRange(columns, lo, hi, rules);
+            }
+            int mid = (lo + hi) >>> 1;
+            BreakdownTask left = new BreakdownTask(columns, lo, mid, rules);
+            left.fork();
+            OrderBreakdown right = new BreakdownTask(columns, mid, hi, rules).compute();
+            return left.join().merge(right);
+        }
+    }
+}
@@ -0,0 +1,265 @@
+package services;
+
+import java.io.BufferedOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.StandardCopyOption;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PreDestroy;
+
+/**
+ * Renders large reports on a bounded background pool and keeps the result on
+ * local disk until it expires. Identical jobs that are still queued or running
+ * are shared instead of rendered twice.
+ *
+ * Files are named FILE_PREFIX + job id, and cleanup only ever touches files with
+ * that prefix, so the jobs directory can be shared with other files or instances.
+ */
+@Service
+public class ReportJobService {
+
+    private static final Logger log = LoggerFactory.getLogger(ReportJobService.class);
+
+    static final String FILE_PREFIX = "report-job-";
+
+    public enum JobType {
+        PDF("pdf", "application/pdf"),
+        ITEMIZED_PDF("pdf", "application/pdf"),
+        CSV("csv", "text/csv");
+
+        final String extension;
+        final String contentType;
+
+        JobType(String extension, String contentType) {
+            this.extension = extension;
+            this.contentType = contentType;
+        }
+    }
+
+    public enum JobStatus { QUEUED, RUNNING, DONE, FAILED }
+
+    public static final class ReportJob {
+        private final String id;
+        private final String key;
+        private final JobType type;
+        private final LocalDate from;
+        private final LocalDate to;
+        private final Instant createdAt = Instant.now();
+        private volatile JobStatus status = JobStatus.QUEUED;
+        private volatile Instant finishedAt;
+        private volatile Path file;
+        private volatile String error;
+
+        ReportJob(String id, String key, JobType type, LocalDate from, LocalDate to) {
+            this.id = id;
+            this.key = key;
+            this.type = type;
+            this.from = from;
+            this.to = to;
+        }
+
+        public String getId() { return id; }
+        public JobType getType() { return type; }
+        public JobStatus getStatus() { return status; }
+        public Path getFile() { return file; }
+
+        public String getContentType() { return type.contentType; }
+
+        public String getFileName() {
+            String prefix = type == JobType.ITEMIZED_PDF ? "report-itemized-" : "report-";
+            return prefix + from + "_to_" + to + "." + type.extension;
+        }
+    }
+
+    private final ReportService reportService;
+    private final Path jobDir;
+    private final Duration ttl;
+    private final ThreadPoolExecutor workers;
+
+    private final Map<String, ReportJob> jobs = new ConcurrentHashMap<>();
+    private final Map<String, ReportJob> inFlightByKey = new ConcurrentHashMap<>();
+
+    public ReportJobService(ReportService reportService,
+                            @Value("${app.reports.jobs.dir:}") String jobDir,
+                            @Value("${app.reports.jobs.ttl-minutes:60}") long ttlMinutes,
+                            @Value("${app.reports.jobs.workers:2}") int workerCount,
+                            @Value("${app.reports.jobs.queue-capacity:20}") int queueCapacity) throws IOException {
+        this.reportService = reportService;
+        this.jobDir = jobDir == null || jobDir.isBlank()
+                ? Paths.get(System.getProperty("java.io.tmpdir"), "mk-report-jobs")
+                : Paths.get(jobDir);
+        this.ttl = Duration.ofMinutes(ttlMinutes);
+        Files.createDirectories(this.jobDir);
+        // Artifacts left by a previous run are unreachable (job metadata lives in memory), but
+        // another instance sharing the directory may still serve its own, so only expired ones go
+        deleteExpiredFiles();
+
+        AtomicInteger threadNo = new AtomicInteger();
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                r -> {
+                    Thread t = new Thread(r, "report-job-" + threadNo.incrementAndGet());
+                    t.setDaemon(true);
+                    return t;
+                });
+    }
+
+    // --------------------------------------------------------------------
+    // SUBMIT (deduplicated on type + range)
+    // --------------------------------------------------------------------
+    /** @throws RejectedExecutionException when the job queue is full */
+    public ReportJob submit(JobType type, LocalDate from, LocalDate to) {
+        String key = type + "|" + from + "|" + to;
+        ReportJob[] created = new ReportJob[1];
+
+        ReportJob job = inFlightByKey.computeIfAbsent(key, k -> {
+            created[0] = new ReportJob(UUID.randomUUID().toString(), k, type, from, to);
+            return created[0];
+        });
+        if (created[0] == null) {
+            return job;
+        }
+
+        jobs.put(job.id, job);
+        try {
+            workers.execute(() -> render(job));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.id);
+            inFlightByKey.remove(key, job);
+            throw e;
+        }
+        return job;
+    }
+
+    public ReportJob getJob(String id) {
+        return jobs.get(id);
+    }
+
+    private void render(ReportJob job) {
+        job.status = JobStatus.RUNNING;
+        Path partial = jobDir.resolve(FILE_PREFIX + job.id + ".part");
+        Path target = jobDir.resolve(FILE_PREFIX + job.id + "." + job.type.extension);
+
+        try (OutputStream out = new BufferedOutputStream(Files.newOutputStream(partial))) {
+            switch (job.type) {
+                case PDF -> reportService.writePDFReport(job.from, job.to, out);
+                case ITEMIZED_PDF -> reportService.writeItemizedPDFReport(job.from, job.to, out);
+                case CSV -> reportService.writeItemizedCSVReport(job.from, job.to, out);
+            }
+        } catch (Exception e) {
+            log.error("[REPORT JOB] {} failed: {}", job.id, e.getMessage());
+            job.error = e.getMessage();
+            job.status = JobStatus.FAILED;
+            job.finishedAt = Instant.now();
+            deleteQuietly(partial);
+            inFlightByKey.remove(job.key, job);
+            return;
+        }
+
+        try {
+            Files.move(partial, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+            job.file = target;
+            job.status = JobStatus.DONE;
+        } catch (IOException e) {
+            log.error("[REPORT JOB] {} could not be moved into place: {}", job.id, e.getMessage());
+            job.error = e.getMessage();
+            job.status = JobStatus.FAILED;
+            deleteQuietly(partial);
+        }
+        job.finishedAt = Instant.now();
+        inFlightByKey.remove(job.key, job);
+        log.info("[REPORT JOB] {} {} finished as {}", job.id, job.type, job.status);
+    }
+
+    // --------------------------------------------------------------------
+    // STATUS
+    // --------------------------------------------------------------------
+    public Map<String, Object> describe(ReportJob job) {
+        Map<String, Object> map = new LinkedHashMap<>();
+        map.put("jobId", job.id);
+        map.put("type", job.type.name());
+        map.put("from", job.from.toString());
+        map.put("to", job.to.toString());
+        map.put("status", job.status.name());
+        map.put("createdAt", job.createdAt);
+        map.put("finishedAt", job.finishedAt);
+        map.put("expiresAt", job.finishedAt == null ? null : job.finishedAt.plus(ttl));
+        if (job.status == JobStatus.DONE) {
+            try {
+                map.put("sizeBytes", Files.size(job.file));
+            } catch (IOException e) {
+                map.put("sizeBytes", null);
+            }
+        }
+        if (job.error != null) {
+            map.put("error", job.error);
+        }
+        return map;
+    }
+
+    // --------------------------------------------------------------------
+    // TTL CLEANUP
+    // --------------------------------------------------------------------
+    @Scheduled(fixedDelayString = "${app.reports.jobs.cleanup-interval-ms:60000}")
+    public void evictExpired() {
+        Instant cutoff = Instant.now().minus(ttl);
+        jobs.values().removeIf(job -> {
+            if (job.finishedAt == null || job.finishedAt.isAfter(cutoff)) return false;
+            if (job.file != null) deleteQuietly(job.file);
+            return true;
+        });
+        deleteExpiredFiles();
+    }
+
+    // Our own files (by prefix) not modified within the TTL, whichever run or instance wrote them
+    private void deleteExpiredFiles() {
+        Instant cutoff = Instant.now().minus(ttl);
+        try (var files = Files.list(jobDir)) {
+            files.filter(p -> p.getFileName().toString().startsWith(FILE_PREFIX))
+                 .filter(p -> {
+                     try {
+                         return Files.getLastModifiedTime(p).toInstant().isBefore(cutoff);
+                     } catch (IOException e) {
+                         return false;
+                     }
+                 })
+                 .forEach(ReportJobService::deleteQuietly);
+        } catch (IOException e) {
+            log.warn("[REPORT JOB] Could not list {}: {}", jobDir, e.getMessage());
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        workers.shutdownNow();
+    }
+
+    private static void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            log.warn("[REPORT JOB] Could not delete {}: {}", path, e.getMessage());
+        }
+    }
+}
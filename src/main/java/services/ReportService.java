@@ -1,55 +1,86 @@
 package services;
 
-import java.util.List;
 import com.lowagie.text.*;
 import com.lowagie.text.pdf.*;
-import dbmodel.Order;
 import dbmodel.OrderStatus;
+import dto.ItemSalesDTO;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import repository.DailySalesRollupRepository;
+import repository.OrderItemRepository;
+import repository.OrderItemRow;
 import repository.OrderRepository;
+import repository.OrderRow;
+import repository.StatusAggregate;
 
+import java.awt.Color;
+import java.io.BufferedWriter;
 import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.OutputStreamWriter;
+import java.io.Writer;
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.time.DayOfWeek;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.time.YearMonth;
 import java.time.ZoneId;
+import java.time.ZonedDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.temporal.ChronoUnit;
+import java.time.temporal.TemporalAdjusters;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.EnumMap;
 import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
 import java.util.Map;
-import java.util.stream.Collectors;
 
 @Service
 public class ReportService {
 
+    @Autowired
+    private DailySalesRollupRepository rollupRepo;
+
+    @Autowired
+    private OrderAnalyticsCache analyticsCache;
+
+    @Autowired
+    private ReportEngine reportEngine;
+
+    @Autowired
+    private ReportDayCache dayCache;
+
+    @Autowired
+    private ZoneId reportZone;
+
     @Autowired
     private OrderRepository orderRepo;
 
+    @Autowired
+    private OrderItemRepository orderItemRepo;
+
+    @Value("${app.reports.chunk-size:500}")
+    private int chunkSize;
+
     // --------------------------------------------------------------------
     // 📌 GET REPORT FOR A SINGLE DAY
     // --------------------------------------------------------------------
     public Map<String, Object> getReportForDay(LocalDate date) {
 
-        List<Order> ordersForDay = orderRepo.findAll().stream()
-                // ✅ Skip orders with null orderedAt
-                .filter(o -> o.getOrderedAt() != null)
-                .filter(o -> o.getOrderedAt()
-                        .atZone(ZoneId.systemDefault())
-                        .toLocalDate()
-                        .equals(date))
-                .collect(Collectors.toList());
-
-        // Delivered only
-        double deliveredRevenue = ordersForDay.stream()
-                .filter(o -> o.getStatus() == OrderStatus.DELIVERED)
-                .mapToDouble(o -> o.getFinalAmount().doubleValue())
-                .sum();
+        Map<OrderStatus, StatusAggregate> totals = aggregate(date, date);
 
         Map<String, Object> map = new HashMap<>();
         map.put("date", date.toString());
-        map.put("deliveredRevenue", deliveredRevenue);
-        map.put("totalDelivered", ordersForDay.stream()
-                .filter(o -> o.getStatus() == OrderStatus.DELIVERED)
-                .count());
-        map.put("totalOrders", ordersForDay.size());
+        map.put("deliveredRevenue", revenueOf(totals, OrderStatus.DELIVERED));
+        map.put("totalDelivered", countOf(totals, OrderStatus.DELIVERED));
+        map.put("totalOrders", totalCount(totals));
 
         return map;
     }
@@ -60,33 +91,13 @@ public class ReportService {
     public Map<String, Object> getReportForMonth(String month) {
 
         YearMonth ym = YearMonth.parse(month); // ISO format YYYY-MM
-        LocalDate start = ym.atDay(1);
-        LocalDate end = ym.atEndOfMonth();
-
-        List<Order> monthlyOrders = orderRepo.findAll().stream()
-                // ✅ Skip null orderedAt
-                .filter(o -> o.getOrderedAt() != null)
-                .filter(o -> {
-                    LocalDate d = o.getOrderedAt()
-                            .atZone(ZoneId.systemDefault())
-                            .toLocalDate();
-                    return (!d.isBefore(start) && !d.isAfter(end));
-                })
-                .collect(Collectors.toList());
-
-        // Delivered revenue
-        double deliveredRevenue = monthlyOrders.stream()
-                .filter(o -> o.getStatus() == OrderStatus.DELIVERED)
-                .mapToDouble(o -> o.getFinalAmount().doubleValue())
-                .sum();
+        Map<OrderStatus, StatusAggregate> totals = aggregate(ym.atDay(1), ym.atEndOfMonth());
 
         Map<String, Object> map = new HashMap<>();
         map.put("month", month);
-        map.put("deliveredRevenue", deliveredRevenue);
-        map.put("totalDelivered", monthlyOrders.stream()
-                .filter(o -> o.getStatus() == OrderStatus.DELIVERED)
-                .count());
-        map.put("totalOrders", monthlyOrders.size());
+        map.put("deliveredRevenue", revenueOf(totals, OrderStatus.DELIVERED));
+        map.put("totalDelivered", countOf(totals, OrderStatus.DELIVERED));
+        map.put("totalOrders", totalCount(totals));
 
         return map;
     }
@@ -96,80 +107,475 @@ public class ReportService {
     // --------------------------------------------------------------------
     public Map<String, Object> generateReport(LocalDate from, LocalDate to) {
 
-        List<Order> orders = orderRepo.findAll().stream()
-                // ✅ Skip null orderedAt
-                .filter(o -> o.getOrderedAt() != null)
-                .filter(o -> {
-                    LocalDate d = o.getOrderedAt()
-                            .atZone(ZoneId.systemDefault())
-                            .toLocalDate();
-                    return (!d.isBefore(from) && !d.isAfter(to));
-                })
-                .collect(Collectors.toList());
-
-        double deliveredRevenue = orders.stream()
-                .filter(o -> o.getStatus() == OrderStatus.DELIVERED)
-                .mapToDouble(o -> o.getFinalAmount().doubleValue())
-                .sum();
+        Map<OrderStatus, StatusAggregate> totals = aggregate(from, to);
 
         Map<String, Object> report = new HashMap<>();
         report.put("from", from.toString());
         report.put("to", to.toString());
-        report.put("deliveredRevenue", deliveredRevenue);
-        report.put("totalOrders", orders.size());
-        report.put("delivered", orders.stream()
-                .filter(o -> o.getStatus() == OrderStatus.DELIVERED)
-                .count());
-        report.put("preparing", orders.stream()
-                .filter(o -> o.getStatus() == OrderStatus.PREPARING)
-                .count());
+        report.put("deliveredRevenue", revenueOf(totals, OrderStatus.DELIVERED));
+        report.put("totalOrders", totalCount(totals));
+        report.put("delivered", countOf(totals, OrderStatus.DELIVERED));
+        report.put("preparing", countOf(totals, OrderStatus.PREPARING));
+
+        Map<String, Object> byStatus = new LinkedHashMap<>();
+        for (OrderStatus status : OrderStatus.values()) {
+            byStatus.put(status.name(), countOf(totals, status));
+        }
+        report.put("byStatus", byStatus);
 
         return report;
     }
 
     // --------------------------------------------------------------------
-    // 📌 PDF REPORT (Correct + Clean + Uses delivered only)
+    // 📌 STATUS x PAYMENT MODE x HOUR BREAKDOWN (single pass)
     // --------------------------------------------------------------------
-    public byte[] generatePDFReport(LocalDate from, LocalDate to) {
+    public Map<String, Object> getBreakdown(LocalDate from, LocalDate to, ZoneId zone) {
 
-        Map<String, Object> data = generateReport(from, to);
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("from", from.toString());
+        report.put("to", to.toString());
+        report.put("zone", zone.getId());
+        report.putAll(breakdown(from, to, zone).toMap());
+
+        return report;
+    }
+
+    // Closed days come from ReportDayCache; only today is recomputed
+    private OrderBreakdown breakdown(LocalDate from, LocalDate to, ZoneId zone) {
+        return dayCache.breakdown(from, to, zone);
+    }
+
+    // --------------------------------------------------------------------
+    // 📌 TIME SERIES — hour / day / week buckets in one pass
+    // --------------------------------------------------------------------
+    public enum SeriesBucket { HOUR, DAY, WEEK }
+
+    // Keeps an hourly series over a long range from producing a huge response
+    private static final int MAX_SERIES_BUCKETS = 5000;
+
+    public Map<String, Object> getSeries(LocalDate from, LocalDate to, SeriesBucket bucket, ZoneId zone) {
+
+        ZonedDateTime end = to.plusDays(1).atStartOfDay(zone);
+        List<ZonedDateTime> starts = new ArrayList<>();
+        ZonedDateTime cursor = from.atStartOfDay(zone);
+        while (cursor.isBefore(end)) {
+            if (starts.size() == MAX_SERIES_BUCKETS) {
+                throw new IllegalArgumentException("Range too large for " + bucket + " buckets");
+            }
+            starts.add(cursor);
+            cursor = switch (bucket) {
+                case HOUR -> cursor.plusHours(1);
+                case DAY -> cursor.toLocalDate().plusDays(1).atStartOfDay(zone);
+                case WEEK -> cursor.toLocalDate().with(TemporalAdjusters.next(DayOfWeek.MONDAY)).atStartOfDay(zone);
+            };
+        }
+
+        long[] boundaries = new long[starts.size() + 1];
+        for (int i = 0; i < starts.size(); i++) {
+            boundaries[i] = starts.get(i).toEpochSecond();
+        }
+        boundaries[starts.size()] = end.toEpochSecond();
+
+        long[][] sums = reportEngine.series(boundaries);
+
+        List<Map<String, Object>> points = new ArrayList<>(starts.size());
+        for (int i = 0; i < starts.size(); i++) {
+            Map<String, Object> point = new LinkedHashMap<>();
+            point.put("start", bucket == SeriesBucket.HOUR
+                    ? starts.get(i).toOffsetDateTime().toString()
+                    : starts.get(i).toLocalDate().toString());
+            point.put("orders", sums[ReportEngine.SERIES_ORDERS][i]);
+            point.put("revenue", sums[ReportEngine.SERIES_PAISE][i] / 100.0);
+            point.put("delivered", sums[ReportEngine.SERIES_DELIVERED][i]);
+            point.put("deliveredRevenue", sums[ReportEngine.SERIES_DELIVERED_PAISE][i] / 100.0);
+            points.add(point);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("from", from.toString());
+        report.put("to", to.toString());
+        report.put("bucket", bucket.name().toLowerCase());
+        report.put("zone", zone.getId());
+        report.put("points", points);
+
+        return report;
+    }
+
+    // --------------------------------------------------------------------
+    // 📌 RANGE AGGREGATION (inclusive local dates)
+    // In-memory columns when loaded, otherwise daily_sales_rollup rows
+    // --------------------------------------------------------------------
+    private Map<OrderStatus, StatusAggregate> aggregate(LocalDate from, LocalDate to) {
+        Map<OrderStatus, StatusAggregate> totals = new EnumMap<>(OrderStatus.class);
+
+        if (analyticsCache.isLoaded()) {
+            OrderBreakdown breakdown = breakdown(from, to, reportZone);
+            for (OrderStatus status : OrderStatus.values()) {
+                long count = breakdown.count(status);
+                if (count == 0) continue;
+                totals.put(status, new StatusTotal(status, count, BigDecimal.valueOf(breakdown.paise(status), 2)));
+            }
+            return totals;
+        }
+
+        for (StatusAggregate row : rollupRepo.aggregateByStatus(from, to)) {
+            totals.put(row.getStatus(), row);
+        }
+        return totals;
+    }
+
+    private static final class StatusTotal implements StatusAggregate {
+        private final OrderStatus status;
+        private final long orderCount;
+        private final BigDecimal revenue;
+
+        StatusTotal(OrderStatus status, long orderCount, BigDecimal revenue) {
+            this.status = status;
+            this.orderCount = orderCount;
+            this.revenue = revenue;
+        }
+
+        public OrderStatus getStatus() { return status; }
+        public long getOrderCount() { return orderCount; }
+        public BigDecimal getRevenue() { return revenue; }
+    }
+
+    private static double revenueOf(Map<OrderStatus, StatusAggregate> totals, OrderStatus status) {
+        StatusAggregate row = totals.get(status);
+        return row == null ? 0.0 : row.getRevenue().doubleValue();
+    }
+
+    private static long countOf(Map<OrderStatus, StatusAggregate> totals, OrderStatus status) {
+        StatusAggregate row = totals.get(status);
+        return row == null ? 0L : row.getOrderCount();
+    }
+
+    private static int totalCount(Map<OrderStatus, StatusAggregate> totals) {
+        long total = 0;
+        for (StatusAggregate row : totals.values()) {
+            total += row.getOrderCount();
+        }
+        return (int) total;
+    }
+
+    // --------------------------------------------------------------------
+    // 📌 ITEM SALES — grouped by food_name in the database
+    // --------------------------------------------------------------------
+    // Longer ranges skip the per-day cache and run as one grouped query
+    private static final int ITEM_CACHE_MAX_DAYS = 92;
+
+    public Map<String, Object> getItemReport(LocalDate from, LocalDate to, Integer limit) {
+
+        List<ItemSalesDTO> items = itemSales(from, to);
+        if (limit != null && limit > 0 && items.size() > limit) {
+            items = items.subList(0, limit);
+        }
+
+        Map<String, Object> report = new LinkedHashMap<>();
+        report.put("from", from.toString());
+        report.put("to", to.toString());
+        report.put("items", items);
+
+        return report;
+    }
+
+    /** Dishes sold in the range, best sellers (by quantity) first. */
+    public List<ItemSalesDTO> itemSales(LocalDate from, LocalDate to) {
+        List<ItemSalesDTO> rows = new ArrayList<>();
+
+        if (ChronoUnit.DAYS.between(from, to) >= ITEM_CACHE_MAX_DAYS) {
+            rows.addAll(itemSalesBetween(from.atStartOfDay(reportZone).toInstant(),
+                    to.plusDays(1).atStartOfDay(reportZone).toInstant()));
+        } else {
+            LocalDate today = LocalDate.now(reportZone);
+            for (LocalDate day = from; !day.isAfter(to) && !day.isAfter(today); day = day.plusDays(1)) {
+                Instant start = day.atStartOfDay(reportZone).toInstant();
+                Instant end = day.plusDays(1).atStartOfDay(reportZone).toInstant();
+                rows.addAll(day.equals(today)
+                        ? itemSalesBetween(start, end)
+                        : dayCache.closedDay(ReportDayCache.ITEMS, day, reportZone, () -> itemSalesBetween(start, end)));
+            }
+        }
+
+        Map<String, ItemSalesDTO> merged = new HashMap<>();
+        for (ItemSalesDTO row : rows) {
+            merged.merge(row.foodName(), row, ItemSalesDTO::plus);
+        }
 
+        List<ItemSalesDTO> items = new ArrayList<>(merged.values());
+        items.sort(Comparator.comparingLong(ItemSalesDTO::quantity).reversed()
+                .thenComparing(ItemSalesDTO::revenue, Comparator.reverseOrder()));
+        return items;
+    }
+
+    private List<ItemSalesDTO> itemSalesBetween(Instant start, Instant end) {
+        return orderItemRepo.aggregateByFoodName(start, end).stream()
+                .map(r -> new ItemSalesDTO(r.getFoodName(), r.getQuantity(), r.getRevenue(), r.getOrderCount()))
+                .toList();
+    }
+
+    public ZoneId getReportZone() {
+        return reportZone;
+    }
+
+    // --------------------------------------------------------------------
+    // 📌 PDF REPORT (Correct + Clean + Uses delivered only)
+    // --------------------------------------------------------------------
+    public byte[] generatePDFReport(LocalDate from, LocalDate to) throws IOException {
         ByteArrayOutputStream out = new ByteArrayOutputStream();
+        writePDFReport(from, to, out);
+        return out.toByteArray();
+    }
+
+    public void writePDFReport(LocalDate from, LocalDate to, OutputStream out) throws IOException {
+
+        Map<String, Object> data = generateReport(from, to);
 
         try {
             Document doc = new Document(PageSize.A4);
             PdfWriter.getInstance(doc, out);
             doc.open();
 
-            Font titleFont = new Font(Font.HELVETICA, 22, Font.BOLD);
-            Font headerFont = new Font(Font.HELVETICA, 14, Font.BOLD);
+            writeTitle(doc, "Mathews Kitchen - Sales Report", from, to);
+            writeSummaryTable(doc, data);
+            writeItemsTable(doc, itemSales(from, to));
+
+            doc.close();
+
+        } catch (DocumentException e) {
+            throw new IOException("Failed to render report", e);
+        }
+    }
+
+    // --------------------------------------------------------------------
+    // 📌 ITEMIZED PDF — streamed to the caller, orders paged in chunks
+    // --------------------------------------------------------------------
+    public void writeItemizedPDFReport(LocalDate from, LocalDate to, OutputStream out) throws IOException {
 
-            Paragraph title = new Paragraph("Mathews Kitchen - Sales Report", titleFont);
-            title.setAlignment(Element.ALIGN_CENTER);
-            doc.add(title);
-            doc.add(new Paragraph("\nPeriod: " + from + " to " + to));
-            doc.add(new Paragraph("\n"));
+        Instant start = from.atStartOfDay(reportZone).toInstant();
+        Instant end = to.plusDays(1).atStartOfDay(reportZone).toInstant();
 
-            // Table
-            PdfPTable table = new PdfPTable(2);
-            table.setWidthPercentage(70);
+        try {
+            Document doc = new Document(PageSize.A4, 28, 28, 36, 36);
+            PdfWriter.getInstance(doc, out);
+            doc.open();
 
-            table.addCell("Delivered Revenue");
-            table.addCell("₹ " + data.get("deliveredRevenue"));
+            writeTitle(doc, "Mathews Kitchen - Itemized Sales Report", from, to);
+            writeSummaryTable(doc, generateReport(from, to));
+            writeItemsTable(doc, itemSales(from, to));
 
-            table.addCell("Total Delivered Orders");
-            table.addCell(data.get("delivered").toString());
+            // Large-table mode: completed rows are written out on every doc.add(table)
+            PdfPTable table = itemizedTable();
+            table.setComplete(false);
 
-            table.addCell("Total Orders");
-            table.addCell(data.get("totalOrders").toString());
+            long[] orderCount = { 0 };
+            BigDecimal[] grandTotal = { BigDecimal.ZERO };
 
+            forEachOrderPage(start, end, (page, itemsByOrder) -> {
+                for (OrderRow order : page) {
+                    addOrderRows(table, order, itemsByOrder.getOrDefault(order.getOrderId(), List.of()));
+                    orderCount[0]++;
+                    grandTotal[0] = grandTotal[0].add(order.getFinalAmount());
+                }
+                doc.add(table);
+            });
+
+            table.setComplete(true);
             doc.add(table);
+
+            Paragraph totals = new Paragraph("\nOrders: " + orderCount[0] + "    Total billed (INR): "
+                    + money(grandTotal[0]), CELL_BOLD_FONT);
+            totals.setAlignment(Element.ALIGN_RIGHT);
+            doc.add(totals);
+
             doc.close();
 
-        } catch (Exception e) {
-            e.printStackTrace();
+        } catch (DocumentException e) {
+            throw new IOException("Failed to render itemized report", e);
         }
+    }
 
-        return out.toByteArray();
+    // --------------------------------------------------------------------
+    // 📌 ITEMIZED CSV — one line per order item, same chunked paging
+    // --------------------------------------------------------------------
+    public void writeItemizedCSVReport(LocalDate from, LocalDate to, OutputStream out) throws IOException {
+
+        Instant start = from.atStartOfDay(reportZone).toInstant();
+        Instant end = to.plusDays(1).atStartOfDay(reportZone).toInstant();
+
+        Writer csv = new BufferedWriter(new OutputStreamWriter(out, StandardCharsets.UTF_8));
+        csv.write("order_id,ordered_at,user_email,name,status,payment_mode,final_amount,"
+                + "food_name,quantity,price_at_order\n");
+
+        try {
+            forEachOrderPage(start, end, (page, itemsByOrder) -> {
+                for (OrderRow order : page) {
+                    String prefix = Csv.field(order.getOrderId()) + ","
+                            + Csv.field(order.getOrderedAt().atZone(reportZone).toOffsetDateTime().toString()) + ","
+                            + Csv.field(order.getUserEmail()) + ","
+                            + Csv.field(order.getName()) + ","
+                            + order.getStatus().name() + ","
+                            + order.getPaymentMode().name() + ","
+                            + money(order.getFinalAmount()) + ",";
+                    List<OrderItemRow> items = itemsByOrder.getOrDefault(order.getOrderId(), List.of());
+                    if (items.isEmpty()) {
+                        csv.write(prefix + ",,\n");
+                    }
+                    for (OrderItemRow item : items) {
+                        csv.write(prefix + Csv.field(item.getFoodName()) + ","
+                                + item.getQuantity() + "," + money(item.getPriceAtOrder()) + "\n");
+                    }
+                }
+            });
+        } catch (DocumentException e) {
+            throw new IOException(e);
+        }
+        csv.flush();
+    }
+
+    // --------------------------------------------------------------------
+    // 📌 KEYSET PAGING OVER (orderedAt, orderId) FOR ITEMIZED OUTPUTS
+    // --------------------------------------------------------------------
+    @FunctionalInterface
+    private interface OrderPageWriter {
+        void write(List<OrderRow> page, Map<String, List<OrderItemRow>> itemsByOrder)
+                throws IOException, DocumentException;
+    }
+
+    private void forEachOrderPage(Instant start, Instant end, OrderPageWriter writer)
+            throws IOException, DocumentException {
+        Instant afterAt = start;
+        String afterId = "";
+
+        while (true) {
+            List<OrderRow> page = orderRepo.findRowsAfter(start, end, afterAt, afterId, Limit.of(chunkSize));
+            if (page.isEmpty()) return;
+
+            Map<String, List<OrderItemRow>> itemsByOrder = new HashMap<>();
+            for (OrderItemRow item : orderItemRepo.findRowsByOrderIds(
+                    page.stream().map(OrderRow::getOrderId).toList())) {
+                itemsByOrder.computeIfAbsent(item.getOrderId(), k -> new ArrayList<>()).add(item);
+            }
+            writer.write(page, itemsByOrder);
+
+            if (page.size() < chunkSize) return;
+            OrderRow last = page.get(page.size() - 1);
+            afterAt = last.getOrderedAt();
+            afterId = last.getOrderId();
+        }
+    }
+
+    // --------------------------------------------------------------------
+    // 📌 PDF BUILDING BLOCKS (fonts and widths shared across requests)
+    // --------------------------------------------------------------------
+    private static final Font TITLE_FONT = new Font(Font.HELVETICA, 22, Font.BOLD);
+    private static final Font CELL_FONT = new Font(Font.HELVETICA, 8, Font.NORMAL);
+    private static final Font CELL_BOLD_FONT = new Font(Font.HELVETICA, 8, Font.BOLD);
+    private static final Color ORDER_ROW_BACKGROUND = new Color(255, 232, 220);
+
+    private static final String[] ITEMIZED_HEADERS =
+            { "Order ID", "Ordered At", "Customer", "Status", "Payment", "Amount (INR)" };
+    private static final float[] ITEMIZED_WIDTHS = { 2.6f, 2.8f, 4.2f, 2.6f, 1.6f, 2.2f };
+    private static final DateTimeFormatter ORDER_TIME = DateTimeFormatter.ofPattern("yyyy-MM-dd HH:mm");
+
+    private void writeTitle(Document doc, String text, LocalDate from, LocalDate to) throws DocumentException {
+        Paragraph title = new Paragraph(text, TITLE_FONT);
+        title.setAlignment(Element.ALIGN_CENTER);
+        doc.add(title);
+        doc.add(new Paragraph("\nPeriod: " + from + " to " + to));
+        doc.add(new Paragraph("\n"));
+    }
+
+    private void writeSummaryTable(Document doc, Map<String, Object> data) throws DocumentException {
+        PdfPTable table = new PdfPTable(2);
+        table.setWidthPercentage(70);
+
+        table.addCell("Delivered Revenue");
+        table.addCell("₹ " + data.get("deliveredRevenue"));
+
+        table.addCell("Total Delivered Orders");
+        table.addCell(data.get("delivered").toString());
+
+        table.addCell("Total Orders");
+        table.addCell(data.get("totalOrders").toString());
+
+        doc.add(table);
+    }
+
+    private static final String[] ITEM_HEADERS = { "Item", "Qty Sold", "Orders", "Revenue (INR)" };
+    private static final float[] ITEM_WIDTHS = { 5f, 1.6f, 1.6f, 2.4f };
+
+    private void writeItemsTable(Document doc, List<ItemSalesDTO> items) throws DocumentException {
+        if (items.isEmpty()) return;
+
+        Paragraph heading = new Paragraph("\nItem Sales", CELL_BOLD_FONT);
+        doc.add(heading);
+
+        PdfPTable table = new PdfPTable(ITEM_WIDTHS.length);
+        table.setWidthPercentage(100);
+        table.setWidths(ITEM_WIDTHS);
+        table.setSpacingBefore(6);
+        for (String header : ITEM_HEADERS) {
+            PdfPCell cell = new PdfPCell(new Phrase(header, CELL_BOLD_FONT));
+            cell.setBackgroundColor(Color.LIGHT_GRAY);
+            table.addCell(cell);
+        }
+        table.setHeaderRows(1);
+
+        for (ItemSalesDTO item : items) {
+            table.addCell(new PdfPCell(new Phrase(item.foodName(), CELL_FONT)));
+            table.addCell(new PdfPCell(new Phrase(String.valueOf(item.quantity()), CELL_FONT)));
+            table.addCell(new PdfPCell(new Phrase(String.valueOf(item.orderCount()), CELL_FONT)));
+            table.addCell(new PdfPCell(new Phrase(money(item.revenue()), CELL_FONT)));
+        }
+        doc.add(table);
+    }
+
+    private PdfPTable itemizedTable() throws DocumentException {
+        PdfPTable table = new PdfPTable(ITEMIZED_WIDTHS.length);
+        table.setWidthPercentage(100);
+        table.setWidths(ITEMIZED_WIDTHS);
+        table.setSpacingBefore(12);
+        for (String header : ITEMIZED_HEADERS) {
+            PdfPCell cell = new PdfPCell(new Phrase(header, CELL_BOLD_FONT));
+            cell.setBackgroundColor(Color.LIGHT_GRAY);
+            table.addCell(cell);
+        }
+        table.setHeaderRows(1);
+        return table;
+    }
+
+    private void addOrderRows(PdfPTable table, OrderRow order, List<OrderItemRow> items) {
+        String customer = order.getName() == null
+                ? order.getUserEmail()
+                : order.getName() + " <" + order.getUserEmail() + ">";
+
+        orderCell(table, order.getOrderId());
+        orderCell(table, ORDER_TIME.format(order.getOrderedAt().atZone(reportZone)));
+        orderCell(table, customer);
+        orderCell(table, order.getStatus().name());
+        orderCell(table, order.getPaymentMode().name());
+        orderCell(table, money(order.getFinalAmount()));
+
+        for (OrderItemRow item : items) {
+            BigDecimal lineTotal = item.getPriceAtOrder().multiply(BigDecimal.valueOf(item.getQuantity()));
+
+            PdfPCell name = new PdfPCell(new Phrase("    " + item.getFoodName(), CELL_FONT));
+            name.setColspan(3);
+            table.addCell(name);
+            table.addCell(new PdfPCell(new Phrase("x " + item.getQuantity(), CELL_FONT)));
+            table.addCell(new PdfPCell(new Phrase("@ " + money(item.getPriceAtOrder()), CELL_FONT)));
+            table.addCell(new PdfPCell(new Phrase(money(lineTotal), CELL_FONT)));
+        }
+    }
+
+    private static void orderCell(PdfPTable table, String text) {
+        PdfPCell cell = new PdfPCell(new Phrase(text, CELL_BOLD_FONT));
+        cell.setBackgroundColor(ORDER_ROW_BACKGROUND);
+        table.addCell(cell);
+    }
+
+    private static String money(BigDecimal amount) {
+        return amount == null ? "0.00" : amount.setScale(2, RoundingMode.HALF_UP).toPlainString();
     }
 }
@@ -0,0 +1,209 @@
+package services;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.stream.Stream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import dbmodel.DailySalesRollup;
+import dbmodel.DailySalesRollupId;
+import dbmodel.Order;
+import dbmodel.OrderStatus;
+import dbmodel.PaymentMode;
+import dto.OrderStatusChangedEvent;
+import repository.DailySalesRollupRepository;
+import repository.OrderFact;
+import repository.OrderRepository;
+
+@Service
+public class SalesRollupService {
+
+    private static final Logger log = LoggerFactory.getLogger(SalesRollupService.class);
+
+    private final DailySalesRollupRepository rollupRepo;
+    private final OrderRepository orderRepo;
+    private final ZoneId zone;
+    private final TransactionTemplate transactionTemplate;
+
+    public SalesRollupService(DailySalesRollupRepository rollupRepo,
+                              OrderRepository orderRepo,
+                              ZoneId reportZone,
+                              PlatformTransactionManager transactionManager) {
+        this.rollupRepo = rollupRepo;
+        this.orderRepo = orderRepo;
+        this.zone = reportZone;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    // --------------------------------------------------------------------
+    // INCREMENTAL MAINTENANCE (joins the caller's transaction)
+    // --------------------------------------------------------------------
+    @Transactional
+    public void recordPlaced(Order order) {
+        apply(order, order.getStatus(), 1, order.getFinalAmount());
+    }
+
+    @Transactional
+    public void recordStatusChange(Order order, OrderStatus from, OrderStatus to) {
+        if (from == to) return;
+        apply(order, from, -1, order.getFinalAmount().negate());
+        apply(order, to, 1, order.getFinalAmount());
+    }
+
+    // Bulk status changes: deltas are summed per rollup row first, so N orders on the
+    // same day, status and payment mode cost one upsert instead of 2N
+    @Transactional
+    public void recordStatusChanges(List<OrderStatusChangedEvent> changes) {
+        Map<DailySalesRollupId, DailySalesRollup> deltas = new HashMap<>();
+        for (OrderStatusChangedEvent change : changes) {
+            if (change.from() == change.to() || change.orderedAt() == null) continue;
+            LocalDate day = change.orderedAt().atZone(zone).toLocalDate();
+            addDelta(deltas, day, change.from(), change.paymentMode(), -1, change.finalAmount().negate());
+            addDelta(deltas, day, change.to(), change.paymentMode(), 1, change.finalAmount());
+        }
+        for (DailySalesRollup delta : deltas.values()) {
+            if (delta.getOrderCount() == 0 && delta.getRevenue().signum() == 0) continue;
+            rollupRepo.increment(delta.getSalesDate(), delta.getStatus().name(),
+                    delta.getPaymentMode().name(), delta.getOrderCount(), delta.getRevenue());
+        }
+    }
+
+    private static void addDelta(Map<DailySalesRollupId, DailySalesRollup> deltas, LocalDate day,
+                                 OrderStatus status, PaymentMode paymentMode, long count, BigDecimal revenue) {
+        DailySalesRollup row = deltas.computeIfAbsent(new DailySalesRollupId(day, status, paymentMode),
+                k -> new DailySalesRollup(day, status, paymentMode, 0, BigDecimal.ZERO));
+        row.setOrderCount(row.getOrderCount() + count);
+        row.setRevenue(row.getRevenue().add(revenue));
+    }
+
+    private void apply(Order order, OrderStatus status, long count, BigDecimal revenue) {
+        if (order.getOrderedAt() == null) return;
+        rollupRepo.increment(order.getOrderedAt().atZone(zone).toLocalDate(),
+                status.name(), order.getPaymentMode().name(), count, revenue);
+    }
+
+    // --------------------------------------------------------------------
+    // REBUILD / BACKFILL FROM orders
+    // --------------------------------------------------------------------
+    // Replaces every rollup row. Orders placed while a rebuild runs can be missed,
+    // so run it outside service hours and confirm the result with verify().
+    @Transactional
+    public Map<String, Object> rebuild() {
+        long started = System.currentTimeMillis();
+        Map<DailySalesRollupId, DailySalesRollup> rows = new HashMap<>();
+        long scanned = 0;
+
+        try (Stream<OrderFact> facts = orderRepo.streamAllFacts()) {
+            Iterator<OrderFact> it = facts.iterator();
+            while (it.hasNext()) {
+                accumulate(rows, it.next());
+                scanned++;
+            }
+        }
+
+        rollupRepo.deleteAllInBatch();
+        rollupRepo.saveAll(rows.values());
+
+        log.info("[ROLLUP] Rebuilt {} rows from {} orders in {} ms",
+                rows.size(), scanned, System.currentTimeMillis() - started);
+
+        Map<String, Object> result = new HashMap<>();
+        result.put("ordersScanned", scanned);
+        result.put("rollupRows", rows.size());
+        result.put("elapsedMs", System.currentTimeMillis() - started);
+        return result;
+    }
+
+    // Backfill once on a fresh deployment so reports are not empty until someone rebuilds
+    @EventListener(ApplicationReadyEvent.class)
+    public void backfillIfEmpty() {
+        try {
+            if (rollupRepo.count() == 0 && orderRepo.count() > 0) {
+                // self-invocation skips the @Transactional proxy, so open the transaction here
+                transactionTemplate.execute(status -> rebuild());
+            }
+        } catch (Exception e) {
+            log.error("[ROLLUP] Backfill failed: {}", e.getMessage());
+        }
+    }
+
+    // --------------------------------------------------------------------
+    // CONSISTENCY CHECK (rollups vs raw orders for a date range)
+    // --------------------------------------------------------------------
+    @Transactional(readOnly = true)
+    public Map<String, Object> verify(LocalDate from, LocalDate to) {
+        Map<DailySalesRollupId, DailySalesRollup> expected = new HashMap<>();
+        Instant start = from.atStartOfDay(zone).toInstant();
+        Instant end = to.plusDays(1).atStartOfDay(zone).toInstant();
+
+        try (Stream<OrderFact> facts = orderRepo.streamFactsBetween(start, end)) {
+            facts.forEach(f -> accumulate(expected, f));
+        }
+
+        Map<DailySalesRollupId, DailySalesRollup> actual = new HashMap<>();
+        for (DailySalesRollup r : rollupRepo.findBySalesDateBetweenOrderBySalesDateAsc(from, to)) {
+            actual.put(new DailySalesRollupId(r.getSalesDate(), r.getStatus(), r.getPaymentMode()), r);
+        }
+
+        Set<DailySalesRollupId> keys = new HashSet<>(expected.keySet());
+        keys.addAll(actual.keySet());
+
+        List<Map<String, Object>> mismatches = new ArrayList<>();
+        for (DailySalesRollupId key : keys) {
+            DailySalesRollup raw = expected.get(key);
+            DailySalesRollup rolled = actual.get(key);
+            long rawCount = raw == null ? 0 : raw.getOrderCount();
+            long rolledCount = rolled == null ? 0 : rolled.getOrderCount();
+            BigDecimal rawRevenue = raw == null ? BigDecimal.ZERO : raw.getRevenue();
+            BigDecimal rolledRevenue = rolled == null ? BigDecimal.ZERO : rolled.getRevenue();
+            if (rawCount == rolledCount && rawRevenue.compareTo(rolledRevenue) == 0) continue;
+
+            DailySalesRollup any = raw != null ? raw : rolled;
+            Map<String, Object> m = new LinkedHashMap<>();
+            m.put("date", any.getSalesDate().toString());
+            m.put("status", any.getStatus().name());
+            m.put("paymentMode", any.getPaymentMode().name());
+            m.put("orderCount", rawCount);
+            m.put("rollupCount", rolledCount);
+            m.put("revenue", rawRevenue);
+            m.put("rollupRevenue", rolledRevenue);
+            mismatches.add(m);
+        }
+        mismatches.sort(Comparator.comparing(m -> (String) m.get("date")));
+
+        Map<String, Object> result = new LinkedHashMap<>();
+        result.put("from", from.toString());
+        result.put("to", to.toString());
+        result.put("consistent", mismatches.isEmpty());
+        result.put("mismatches", mismatches);
+        return result;
+    }
+
+    private void accumulate(Map<DailySalesRollupId, DailySalesRollup> rows, OrderFact f) {
+        LocalDate day = f.getOrderedAt().atZone(zone).toLocalDate();
+        DailySalesRollup row = rows.computeIfAbsent(
+                new DailySalesRollupId(day, f.getStatus(), f.getPaymentMode()),
+                k -> new DailySalesRollup(day, f.getStatus(), f.getPaymentMode(), 0, BigDecimal.ZERO));
+        row.setOrderCount(row.getOrderCount() + 1);
+        row.setRevenue(row.getRevenue().add(f.getFinalAmount()));
+    }
+}
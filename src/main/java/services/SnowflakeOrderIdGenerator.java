@@ -0,0 +1,121 @@
+package services;
+
+import java.lang.management.ManagementFactory;
+import java.net.InetAddress;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.env.Environment;
+import org.springframework.core.env.Profiles;
+import org.springframework.stereotype.Service;
+
+/**
+ * Snowflake-style ids: 41 bits of milliseconds since 2024-01-01, 10 bits of node id
+ * and a 12-bit per-millisecond sequence, written as "ORD-" plus 13 Crockford base32
+ * characters (17 in total). Ids from one node sort by creation time, which keeps
+ * InnoDB appending to the end of the primary key instead of splitting pages.
+ *
+ * Lock-free: the last (millisecond, sequence) pair lives in one AtomicLong and is
+ * advanced with compareAndSet. When a millisecond runs out of sequence numbers, or
+ * the clock steps backwards, ids keep counting on from the last millisecond used.
+ *
+ * Two instances with the same node id can hand out the same id, so startup fails
+ * when app.orders.node-id is unset, except under the dev and test profiles.
+ */
+@Service
+public class SnowflakeOrderIdGenerator implements OrderIdGenerator {
+
+    private static final Logger log = LoggerFactory.getLogger(SnowflakeOrderIdGenerator.class);
+
+    static final long EPOCH_MILLIS = Instant.parse("2024-01-01T00:00:00Z").toEpochMilli();
+
+    private static final int NODE_BITS = 10;
+    private static final int SEQUENCE_BITS = 12;
+    public static final int MAX_NODE_ID = (1 << NODE_BITS) - 1;
+    private static final long SEQUENCE_MASK = (1L << SEQUENCE_BITS) - 1;
+
+    private static final String PREFIX = "ORD-";
+    // Crockford base32: no I, L, O or U, and ascending in ASCII so text order equals numeric order
+    private static final char[] ALPHABET = "0123456789ABCDEFGHJKMNPQRSTVWXYZ".toCharArray();
+    private static final int ENCODED_LENGTH = 13;
+
+    private final long nodeId;
+
+    // (millis since EPOCH << SEQUENCE_BITS) | sequence of the last id handed out
+    private final AtomicLong last = new AtomicLong();
+
+    @Autowired
+    public SnowflakeOrderIdGenerator(@Value("${app.orders.node-id:}") String nodeId, Environment environment) {
+        this(nodeId, environment.acceptsProfiles(Profiles.of("dev", "test")));
+    }
+
+    /** A generator for one fixed node; the id must be given. */
+    public SnowflakeOrderIdGenerator(String nodeId) {
+        this(nodeId, false);
+    }
+
+    private SnowflakeOrderIdGenerator(String nodeId, boolean deriveIfUnset) {
+        this.nodeId = resolveNodeId(nodeId, deriveIfUnset);
+        log.info("[ORDER ID] Generating order ids as node {}", this.nodeId);
+    }
+
+    @Override
+    public String nextId() {
+        return encode(nextLong());
+    }
+
+    long nextLong() {
+        while (true) {
+            long prev = last.get();
+            long now = System.currentTimeMillis() - EPOCH_MILLIS;
+            long prevMillis = prev >>> SEQUENCE_BITS;
+
+            // Same millisecond, clock went back, or sequence exhausted: step the previous pair by one
+            long next = now > prevMillis ? now << SEQUENCE_BITS : prev + 1;
+            if (last.compareAndSet(prev, next)) {
+                long millis = next >>> SEQUENCE_BITS;
+                long sequence = next & SEQUENCE_MASK;
+                return (millis << (NODE_BITS + SEQUENCE_BITS)) | (nodeId << SEQUENCE_BITS) | sequence;
+            }
+        }
+    }
+
+    static String encode(long id) {
+        char[] out = new char[PREFIX.length() + ENCODED_LENGTH];
+        PREFIX.getChars(0, PREFIX.length(), out, 0);
+        for (int i = out.length - 1; i >= PREFIX.length(); i--) {
+            out[i] = ALPHABET[(int) (id & 31)];
+            id >>>= 5;
+        }
+        return new String(out);
+    }
+
+    // Set app.orders.node-id (ORDER_NODE_ID) per instance; the dev/test fallback only makes clashes unlikely
+    private static long resolveNodeId(String configured, boolean deriveIfUnset) {
+        if (configured != null && !configured.isBlank()) {
+            long id = Long.parseLong(configured.trim());
+            if (id < 0 || id > MAX_NODE_ID) {
+                throw new IllegalArgumentException("app.orders.node-id must be between 0 and " + MAX_NODE_ID);
+            }
+            return id;
+        }
+        if (!deriveIfUnset) {
+            throw new IllegalStateException("app.orders.node-id (ORDER_NODE_ID) must be set to a value unique to "
+                    + "this instance, between 0 and " + MAX_NODE_ID);
+        }
+        String host;
+        try {
+            host = InetAddress.getLocalHost().getHostName();
+        } catch (Exception e) {
+            host = "unknown";
+        }
+        long derived = Math.floorMod((host + "/" + ManagementFactory.getRuntimeMXBean().getName()).hashCode(),
+                MAX_NODE_ID + 1);
+        log.warn("[ORDER ID] app.orders.node-id not set; derived node {} from host and pid", derived);
+        return derived;
+    }
+}
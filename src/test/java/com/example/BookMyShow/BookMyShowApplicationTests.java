@@ -2,8 +2,12 @@ package com.example.BookMyShow;
 
 import org.junit.jupiter.api.Test;
 import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.ActiveProfiles;
 
-@SpringBootTest
+import mainApplication.BookMyShowApplication;
+
+@SpringBootTest(classes = BookMyShowApplication.class)
+@ActiveProfiles("test")
 class BookMyShowApplicationTests {
 
 	@Test
@@ -0,0 +1,93 @@
+package com.example.BookMyShow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import dbmodel.OrderStatus;
+import dto.OrderStatusUpdateResult;
+import dto.OrderStatusUpdateResult.Outcome;
+import jakarta.persistence.EntityManager;
+import repository.OrderRepository;
+import services.BulkOrderStatusService;
+import services.SalesRollupService;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ BulkOrderStatusService.class, SalesRollupService.class })
+class BulkOrderStatusServiceTests {
+
+    @Autowired
+    private BulkOrderStatusService bulkStatusService;
+
+    @Autowired
+    private OrderRepository orderRepo;
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    void eachOrderGetsItsOwnOutcomeAndOnlyAllowedChangesAreWritten() {
+        save("ORD-BULK1", OrderStatus.ORDERED);
+        save("ORD-BULK2", OrderStatus.ORDERED);
+        save("ORD-BULK3", OrderStatus.PREPARING);
+        save("ORD-BULK4", OrderStatus.DELIVERED);
+
+        List<OrderStatusUpdateResult> results = bulkStatusService.updateStatuses(
+                List.of("ORD-BULK1", "ORD-BULK2", "ORD-BULK3", "ORD-BULK4", "ORD-MISSING", "ORD-BULK1"), "preparing");
+
+        Map<String, Outcome> outcomes = results.stream()
+                .collect(Collectors.toMap(OrderStatusUpdateResult::orderId, OrderStatusUpdateResult::outcome));
+        assertEquals(5, results.size());
+        assertEquals(Outcome.UPDATED, outcomes.get("ORD-BULK1"));
+        assertEquals(Outcome.UPDATED, outcomes.get("ORD-BULK2"));
+        assertEquals(Outcome.UNCHANGED, outcomes.get("ORD-BULK3"));
+        assertEquals(Outcome.ALREADY_DELIVERED, outcomes.get("ORD-BULK4"));
+        assertEquals(Outcome.NOT_FOUND, outcomes.get("ORD-MISSING"));
+
+        em.clear();
+        assertEquals(OrderStatus.PREPARING, orderRepo.findById("ORD-BULK1").orElseThrow().getStatus());
+        assertEquals(OrderStatus.PREPARING, orderRepo.findById("ORD-BULK2").orElseThrow().getStatus());
+        assertEquals(OrderStatus.DELIVERED, orderRepo.findById("ORD-BULK4").orElseThrow().getStatus());
+    }
+
+    @Test
+    void backwardMovesAreNotAllowedAndUpdatesBumpTheVersion() {
+        save("ORD-BACK1", OrderStatus.OUT_FOR_DELIVERY);
+        save("ORD-BACK2", OrderStatus.ORDERED);
+        em.flush();
+        long before = orderRepo.findById("ORD-BACK2").orElseThrow().getVersion();
+
+        Map<String, Outcome> outcomes = bulkStatusService.updateStatuses(List.of("ORD-BACK1", "ORD-BACK2"), "PREPARING")
+                .stream().collect(Collectors.toMap(OrderStatusUpdateResult::orderId, OrderStatusUpdateResult::outcome));
+        assertEquals(Outcome.NOT_ALLOWED, outcomes.get("ORD-BACK1"));
+        assertEquals(Outcome.UPDATED, outcomes.get("ORD-BACK2"));
+
+        em.clear();
+        assertEquals(OrderStatus.OUT_FOR_DELIVERY, orderRepo.findById("ORD-BACK1").orElseThrow().getStatus());
+        assertEquals(before + 1, orderRepo.findById("ORD-BACK2").orElseThrow().getVersion());
+        // A writer still holding the old version misses instead of overwriting
+        assertEquals(0, orderRepo.compareAndSetStatus("ORD-BACK2", OrderStatus.PREPARING, before,
+                OrderStatus.DELIVERED, Instant.now()));
+    }
+
+    @Test
+    void invalidStatusIsRejected() {
+        assertThrows(IllegalArgumentException.class,
+                () -> bulkStatusService.updateStatuses(List.of("ORD-BULK1"), "COOKING"));
+    }
+
+    private void save(String orderId, OrderStatus status) {
+        orderRepo.save(TestOrders.order(orderId, status));
+    }
+}
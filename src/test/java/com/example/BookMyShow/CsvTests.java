@@ -0,0 +1,20 @@
+package com.example.BookMyShow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import org.junit.jupiter.api.Test;
+
+import services.Csv;
+
+class CsvTests {
+
+    @Test
+    void quotesOnlyWhatNeedsIt() {
+        assertEquals("", Csv.field(null));
+        assertEquals("Paneer Tikka", Csv.field("Paneer Tikka"));
+        assertEquals("\"12, MG Road\"", Csv.field("12, MG Road"));
+        assertEquals("\"say \"\"hi\"\"\"", Csv.field("say \"hi\""));
+        assertEquals("\"line\nbreak\"", Csv.field("line\nbreak"));
+        assertEquals("\"line\rbreak\"", Csv.field("line\rbreak"));
+    }
+}
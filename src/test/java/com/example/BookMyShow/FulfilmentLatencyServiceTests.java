@@ -0,0 +1,155 @@
+package com.example.BookMyShow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.Map;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import dbmodel.Order;
+import dbmodel.OrderStatus;
+import dbmodel.OrderStatusHistory;
+import dbmodel.PaymentMode;
+import dto.OrderPlacedEvent;
+import dto.OrderStatusChangedEvent;
+import jakarta.persistence.EntityManager;
+import repository.OrderRepository;
+import repository.OrderStatusHistoryRepository;
+import services.FulfilmentLatencyService;
+import services.LatencyHistogram;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(FulfilmentLatencyService.class)
+class FulfilmentLatencyServiceTests {
+
+    private static final Instant T0 = Instant.parse("2025-01-01T10:00:00Z");
+
+    @Autowired
+    private ApplicationEventPublisher events;
+
+    @Autowired
+    private FulfilmentLatencyService latencyService;
+
+    @Autowired
+    private OrderRepository orderRepo;
+
+    @Autowired
+    private OrderStatusHistoryRepository historyRepo;
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    void histogramPercentilesStayWithinBucketPrecision() {
+        LatencyHistogram histogram = new LatencyHistogram();
+        for (long v = 1; v <= 1000; v++) histogram.record(v * 100);
+
+        assertEquals(1000, histogram.count());
+        assertEquals(100_000, histogram.max());
+        assertWithin(50_000, histogram.percentile(50));
+        assertWithin(90_000, histogram.percentile(90));
+        assertWithin(99_000, histogram.percentile(99));
+        assertEquals(100_000, histogram.percentile(100));
+    }
+
+    @Test
+    void everyPlacementAndTransitionIsAppended() {
+        place("ORD-H1");
+        change("ORD-H1", OrderStatus.ORDERED, OrderStatus.PREPARING, T0, 120);
+        change("ORD-H1", OrderStatus.PREPARING, OrderStatus.DELIVERED, T0.plusSeconds(120), 900);
+        em.flush();
+
+        List<OrderStatusHistory> history = historyRepo.findByOrderIdOrderByChangedAtAsc("ORD-H1");
+        assertEquals(3, history.size());
+        assertNull(history.get(0).getFromStatus());
+        assertEquals(OrderStatus.ORDERED, history.get(0).getToStatus());
+        assertEquals(120_000L, history.get(1).getDurationMs());
+        assertEquals(780_000L, history.get(2).getDurationMs());
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void dailyReportGroupsTransitionsByDay() {
+        for (int i = 0; i < 4; i++) {
+            String orderId = "ORD-D" + i;
+            place(orderId);
+            change(orderId, OrderStatus.ORDERED, OrderStatus.PREPARING, T0, 60L * (i + 1));
+            change(orderId, OrderStatus.PREPARING, OrderStatus.DELIVERED, T0.plusSeconds(60L * (i + 1)), 1800);
+        }
+        em.flush();
+
+        Map<String, Object> report = latencyService.dailyReport(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 1, 2));
+        List<Map<String, Object>> days = (List<Map<String, Object>>) report.get("days");
+        assertEquals(1, days.size());
+        assertEquals("2025-01-01", days.get(0).get("date"));
+
+        Map<String, Map<String, Object>> transitions = (Map<String, Map<String, Object>>) days.get(0).get("transitions");
+        Map<String, Object> preparing = transitions.get("ORDERED->PREPARING");
+        assertEquals(4L, preparing.get("count"));
+        assertWithin(120_000, (long) preparing.get("p50Ms"));
+        // Never reported above the largest recorded value
+        assertEquals(240_000L, preparing.get("p99Ms"));
+        assertEquals(240_000L, preparing.get("maxMs"));
+        assertEquals(4L, transitions.get(FulfilmentLatencyService.FULFILMENT).get("count"));
+        assertEquals(1_800_000L, transitions.get(FulfilmentLatencyService.FULFILMENT).get("maxMs"));
+
+        assertThrows(IllegalArgumentException.class,
+                () -> latencyService.dailyReport(LocalDate.of(2025, 1, 1), LocalDate.of(2025, 6, 1)));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void liveWindowsOnlyCountRecentTransitions() {
+        Instant now = Instant.now();
+        latencyService.onStatusCommitted(new OrderStatusChangedEvent("ORD-L1", "l@example.com", now.minusSeconds(300),
+                PaymentMode.UPI, BigDecimal.TEN, OrderStatus.ORDERED, OrderStatus.PREPARING, now, null));
+        // Changed two hours ago: outside every window
+        latencyService.onStatusCommitted(new OrderStatusChangedEvent("ORD-L2", "l@example.com", now.minusSeconds(7500),
+                PaymentMode.UPI, BigDecimal.TEN, OrderStatus.ORDERED, OrderStatus.PREPARING, now.minusSeconds(7200), null));
+
+        Map<String, Map<String, Object>> transitions =
+                (Map<String, Map<String, Object>>) latencyService.live().get("transitions");
+        Map<String, Object> lastFive = (Map<String, Object>) transitions.get("ORDERED->PREPARING").get("5m");
+        assertEquals(1L, lastFive.get("count"));
+        assertWithin(300_000, (long) lastFive.get("p50Ms"));
+    }
+
+    private void place(String orderId) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setUserEmail("h@example.com");
+        order.setAddress("Street 1");
+        order.setTotalAmount(BigDecimal.TEN);
+        order.setFinalAmount(BigDecimal.TEN);
+        order.setStatus(OrderStatus.ORDERED);
+        order.setPaymentMode(PaymentMode.COD);
+        order.setOrderedAt(T0);
+        order.setStatusChangedAt(T0);
+        orderRepo.save(order);
+        events.publishEvent(new OrderPlacedEvent(orderId, "h@example.com", T0, OrderStatus.ORDERED, PaymentMode.COD,
+                BigDecimal.TEN, "Hana", "Street 1", List.of()));
+    }
+
+    private void change(String orderId, OrderStatus from, OrderStatus to, Instant fromSince, long secondsAfterT0) {
+        events.publishEvent(new OrderStatusChangedEvent(orderId, "h@example.com", T0, PaymentMode.COD, BigDecimal.TEN,
+                from, to, T0.plusSeconds(secondsAfterT0), fromSince));
+    }
+
+    private static void assertWithin(long expected, long actual) {
+        assertTrue(Math.abs(actual - expected) <= expected / 16,
+                "expected ~" + expected + " but was " + actual);
+    }
+}
@@ -0,0 +1,179 @@
+package com.example.BookMyShow;
+
+import static org.junit.jupiter.api.Assertions.assertArrayEquals;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import dbmodel.IdempotencyRecord;
+import repository.IdempotencyRecordRepository;
+import services.IdempotencyService;
+import services.IdempotencyService.StoredResponse;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import(IdempotencyService.class)
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class IdempotencyServiceTests {
+
+    private static final byte[] REQUEST = "{\"userEmail\":\"a@example.com\"}".getBytes(StandardCharsets.UTF_8);
+
+    @Autowired
+    private IdempotencyService idempotencyService;
+
+    @Autowired
+    private IdempotencyRecordRepository recordRepo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void concurrentDuplicatesRunOnceAndGetIdenticalBytes() throws Exception {
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<StoredResponse>> futures = new ArrayList<>();
+
+        for (int i = 0; i < 8; i++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                return idempotencyService.execute("key-concurrent", REQUEST, () -> {
+                    runs.incrementAndGet();
+                    sleep(200);
+                    return ok("Order placed successfully! Your Order ID is: ORD-1");
+                });
+            }));
+        }
+        start.countDown();
+
+        byte[] first = futures.get(0).get().body();
+        for (Future<StoredResponse> f : futures) {
+            assertArrayEquals(first, f.get().body());
+        }
+        pool.shutdown();
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void sameKeyWithDifferentBodyIsRejected() {
+        idempotencyService.execute("key-reuse", REQUEST, () -> ok("first"));
+
+        assertThrows(IdempotencyService.KeyReuseException.class, () -> idempotencyService.execute("key-reuse",
+                "{}".getBytes(StandardCharsets.UTF_8), () -> ok("second")));
+    }
+
+    @Test
+    void serverErrorsAreNotStored() {
+        AtomicInteger runs = new AtomicInteger();
+        idempotencyService.execute("key-5xx", REQUEST, () -> {
+            runs.incrementAndGet();
+            return new StoredResponse(500, "application/json", new byte[0]);
+        });
+        StoredResponse retried = idempotencyService.execute("key-5xx", REQUEST, () -> {
+            runs.incrementAndGet();
+            return ok("placed");
+        });
+
+        assertEquals(2, runs.get());
+        assertEquals(200, retried.status());
+    }
+
+    @Test
+    void aResponseThatCannotBeStoredFailsTheRequestAndUndoesItsWrites() {
+        AtomicInteger runs = new AtomicInteger();
+        // Body larger than the column: the store fails when the request transaction commits
+        assertThrows(RuntimeException.class, () -> idempotencyService.execute("key-unstored", REQUEST, () -> {
+            runs.incrementAndGet();
+            // Stands in for the order the request places
+            recordRepo.save(new IdempotencyRecord("side-effect", "x", Instant.now(), Instant.now().plusSeconds(60)));
+            return new StoredResponse(200, "text/plain;charset=UTF-8", new byte[8192]);
+        }));
+        assertFalse(recordRepo.existsById("side-effect"));
+
+        StoredResponse retried = idempotencyService.execute("key-unstored", REQUEST, () -> {
+            runs.incrementAndGet();
+            return ok("placed");
+        });
+        assertEquals(2, runs.get());
+        assertEquals(200, retried.status());
+    }
+
+    @Test
+    void twoInstancesRacingOnAnExpiredKeyRunItOnce() throws Exception {
+        Instant past = Instant.now().minusSeconds(60);
+        IdempotencyRecord expired = new IdempotencyRecord("key-expired", "stale", past.minusSeconds(60), past);
+        recordRepo.saveAndFlush(expired);
+        // A second node sharing the table: single-flight in one JVM does not stop it
+        IdempotencyService otherNode = new IdempotencyService(recordRepo, transactionManager, 1440, 10_000, 100);
+
+        AtomicInteger runs = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(8);
+        List<Future<StoredResponse>> futures = new ArrayList<>();
+        for (int i = 0; i < 8; i++) {
+            IdempotencyService node = i % 2 == 0 ? idempotencyService : otherNode;
+            futures.add(pool.submit(() -> {
+                start.await();
+                return node.execute("key-expired", REQUEST, () -> {
+                    runs.incrementAndGet();
+                    sleep(200);
+                    return ok("placed once");
+                });
+            }));
+        }
+        start.countDown();
+        for (Future<StoredResponse> f : futures) {
+            assertEquals("placed once", new String(f.get().body(), StandardCharsets.UTF_8));
+        }
+        pool.shutdown();
+        assertEquals(1, runs.get());
+    }
+
+    @Test
+    void onlyOneClaimerTakesOverAnExpiredRow() {
+        Instant now = Instant.now();
+        recordRepo.saveAndFlush(new IdempotencyRecord("key-takeover", "stale", now.minusSeconds(120),
+                now.minusSeconds(60)));
+        TransactionTemplate tx = new TransactionTemplate(transactionManager);
+
+        // Both read the row as expired; the second statement finds it already renewed
+        int first = tx.execute(status -> recordRepo.takeOverExpired("key-takeover", "a", now, now.plusSeconds(300)));
+        int second = tx.execute(status -> recordRepo.takeOverExpired("key-takeover", "b", now, now.plusSeconds(300)));
+
+        assertEquals(1, first);
+        assertEquals(0, second);
+        assertEquals("a", recordRepo.findById("key-takeover").orElseThrow().getRequestHash());
+    }
+
+    private static StoredResponse ok(String text) {
+        return new StoredResponse(200, "text/plain;charset=UTF-8", text.getBytes(StandardCharsets.UTF_8));
+    }
+
+    private static void sleep(long millis) {
+        try {
+            Thread.sleep(millis);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
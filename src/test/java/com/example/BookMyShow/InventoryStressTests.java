@@ -0,0 +1,232 @@
+package com.example.BookMyShow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.sql.Statement;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.SortedMap;
+import java.util.TreeMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.Consumer;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.BatchPreparedStatementSetter;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import services.InsufficientInventoryException;
+import services.InventoryLedger;
+import services.InventoryService;
+
+/**
+ * Hammers the conditional stock decrement and the in-memory ledger from many
+ * threads and checks that no dish is oversold and no order takes only part of its cart.
+ */
+@DataJpaTest(properties = "app.inventory.ledger.enabled=true")
+@ActiveProfiles("test")
+@Import({ InventoryService.class, InventoryLedger.class })
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InventoryStressTests {
+
+    private static final Logger log = LoggerFactory.getLogger(InventoryStressTests.class);
+
+    private static final int THREADS = 16;
+    private static final int ATTEMPTS = 2_000;
+    private static final int DAL_STOCK = 1_000;
+    private static final int PANEER_STOCK = 600;
+
+    @Autowired
+    private InventoryService inventoryService;
+
+    @Autowired
+    private InventoryLedger ledger;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    private TransactionTemplate tx;
+
+    @BeforeEach
+    void seed() {
+        tx = new TransactionTemplate(transactionManager);
+        jdbcTemplate.update("DELETE FROM food_items");
+        jdbcTemplate.update("INSERT INTO food_items (name, inventory, is_available, veg) VALUES ('Dal', ?, true, 'V')", DAL_STOCK);
+        jdbcTemplate.update("INSERT INTO food_items (name, inventory, is_available, veg) VALUES ('Paneer', ?, true, 'V')", PANEER_STOCK);
+    }
+
+    @Test
+    void concurrentOrdersNeverOversellOrTakePartialCarts() throws Exception {
+        int placed = hammer("SQL", cart -> inventoryService.decrement(cart));
+
+        assertOutcome(placed);
+    }
+
+    @Test
+    void ledgerNeverOversellsAndFlushesNetDeltas() throws Exception {
+        ledger.load();
+        int placed = hammer("LEDGER", cart -> inventoryService.take(cart));
+        ledger.flush();
+
+        assertOutcome(placed);
+    }
+
+    @Test
+    void ledgerReleasesStockWhenTheOrderRollsBack() {
+        ledger.load();
+        SortedMap<String, Integer> cart = orderCart();
+
+        assertThrows(IllegalStateException.class, () -> tx.executeWithoutResult(status -> {
+            inventoryService.take(cart);
+            throw new IllegalStateException("order insert failed");
+        }));
+        ledger.flush();
+
+        assertEquals(DAL_STOCK, stock("Dal"));
+        assertEquals(PANEER_STOCK, stock("Paneer"));
+    }
+
+    @Test
+    void adminResetKeepsUnflushedAndInFlightReservations() {
+        ledger.load();
+        // Committed but not flushed yet
+        tx.executeWithoutResult(status -> inventoryService.take(orderCart()));
+
+        TransactionTemplate adminTx = new TransactionTemplate(transactionManager);
+        adminTx.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+
+        assertThrows(IllegalStateException.class, () -> tx.executeWithoutResult(status -> {
+            inventoryService.take(orderCart());
+            // An admin restocks Paneer while this order is still open, then the order rolls back
+            adminTx.executeWithoutResult(s -> jdbcTemplate.update("UPDATE food_items SET inventory = 50 WHERE name = 'Paneer'"));
+            ledger.reset("Paneer", "Paneer");
+            throw new IllegalStateException("order insert failed");
+        }));
+        ledger.flush();
+
+        assertEquals(DAL_STOCK - 1, stock("Dal"));
+        assertEquals(50 - 2, stock("Paneer"));
+    }
+
+    @Test
+    void shortLineRollsBackEveryLineOfTheCart() {
+        SortedMap<String, Integer> cart = new TreeMap<>();
+        cart.put("Dal", 5);
+        cart.put("Paneer", PANEER_STOCK + 1);
+
+        assertThrows(InsufficientInventoryException.class,
+                () -> tx.executeWithoutResult(status -> inventoryService.decrement(cart)));
+
+        assertEquals(DAL_STOCK, stock("Dal"));
+        assertEquals(PANEER_STOCK, stock("Paneer"));
+    }
+
+    @Test
+    void dishesWithoutStockRowsAreNotTracked() {
+        SortedMap<String, Integer> cart = new TreeMap<>();
+        cart.put("Chef Special", 3);
+        cart.put("Dal", 1);
+
+        tx.executeWithoutResult(status -> inventoryService.decrement(cart));
+
+        assertEquals(DAL_STOCK - 1, stock("Dal"));
+    }
+
+    @Test
+    void linesWithoutAnUpdateCountFailTheCart() {
+        // A batching driver may report SUCCESS_NO_INFO, which says nothing about a sold-out line
+        JdbcTemplate noInfo = new JdbcTemplate(jdbcTemplate.getDataSource()) {
+            @Override
+            public int[] batchUpdate(String sql, BatchPreparedStatementSetter pss) {
+                int[] counts = super.batchUpdate(sql, pss);
+                Arrays.fill(counts, Statement.SUCCESS_NO_INFO);
+                return counts;
+            }
+        };
+        InventoryService service = new InventoryService(noInfo, ledger);
+        SortedMap<String, Integer> cart = new TreeMap<>();
+        cart.put("Dal", 1);
+        cart.put("Paneer", PANEER_STOCK + 1);
+
+        assertThrows(IllegalStateException.class, () -> tx.executeWithoutResult(status -> service.decrement(cart)));
+
+        assertEquals(DAL_STOCK, stock("Dal"));
+        assertEquals(PANEER_STOCK, stock("Paneer"));
+    }
+
+    // Every order wants 1 Dal + 2 Paneer, so Paneer runs out first after PANEER_STOCK / 2 orders
+    private static SortedMap<String, Integer> orderCart() {
+        SortedMap<String, Integer> cart = new TreeMap<>();
+        cart.put("Dal", 1);
+        cart.put("Paneer", 2);
+        return cart;
+    }
+
+    private void assertOutcome(int placed) {
+        int expected = PANEER_STOCK / 2;
+        assertEquals(expected, placed);
+        assertEquals(DAL_STOCK - expected, stock("Dal"));
+        assertEquals(0, stock("Paneer"));
+    }
+
+    private int hammer(String label, Consumer<SortedMap<String, Integer>> take) throws Exception {
+        SortedMap<String, Integer> cart = orderCart();
+        AtomicInteger placed = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> futures = new ArrayList<>();
+
+        for (int t = 0; t < THREADS; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                for (int i = 0; i < ATTEMPTS / THREADS; i++) {
+                    try {
+                        tx.executeWithoutResult(status -> take.accept(cart));
+                        placed.incrementAndGet();
+                    } catch (InsufficientInventoryException e) {
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long began = System.nanoTime();
+        start.countDown();
+        for (Future<?> f : futures) f.get();
+        double seconds = (System.nanoTime() - began) / 1e9;
+        pool.shutdown();
+        pool.awaitTermination(10, TimeUnit.SECONDS);
+
+        assertEquals(ATTEMPTS, placed.get() + rejected.get());
+        log.info("[INVENTORY STRESS] {}: {} attempts on {} threads: {} placed, {} rejected, {} orders/sec",
+                label, ATTEMPTS, THREADS, placed.get(), rejected.get(), Math.round(ATTEMPTS / seconds));
+        return placed.get();
+    }
+
+    private int stock(String name) {
+        return jdbcTemplate.queryForObject("SELECT inventory FROM food_items WHERE name = ?", Integer.class, name);
+    }
+}
@@ -0,0 +1,119 @@
+package com.example.BookMyShow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.doThrow;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import dbmodel.Order;
+import dbmodel.OrderStatus;
+import dbmodel.PaymentMode;
+import dto.OrderResponseDTO;
+import dto.OrderStatusChangedEvent;
+import repository.OrderRepository;
+import services.EmailService;
+import services.InvoiceDispatcher;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Transactional(propagation = Propagation.NOT_SUPPORTED)
+class InvoiceDispatcherTests {
+
+    @Autowired
+    private OrderRepository orderRepo;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @BeforeEach
+    void cleanUp() {
+        orderRepo.deleteAll();
+    }
+
+    @Test
+    void aFailedSendIsRetriedBySweepAndThenNeverResent() throws Exception {
+        deliver("ORD-INV1");
+
+        EmailService down = mock(EmailService.class);
+        doThrow(new RuntimeException("provider down")).when(down).sendOrderInvoice(any());
+        InvoiceDispatcher first = dispatcher(down);
+        first.onStatusChanged(delivered("ORD-INV1"));
+        first.shutdown();
+        assertNull(reload("ORD-INV1").getInvoiceSentAt());
+        assertNull(reload("ORD-INV1").getInvoiceClaimedAt());
+
+        EmailService up = mock(EmailService.class);
+        InvoiceDispatcher second = dispatcher(up);
+        second.retryUnsent();
+        second.shutdown();
+        verify(up).sendOrderInvoice(any(OrderResponseDTO.class));
+        assertNotNull(reload("ORD-INV1").getInvoiceSentAt());
+
+        // A duplicate event or a later sweep finds the invoice already sent
+        InvoiceDispatcher third = dispatcher(up);
+        third.onStatusChanged(delivered("ORD-INV1"));
+        third.retryUnsent();
+        third.shutdown();
+        verify(up, times(1)).sendOrderInvoice(any(OrderResponseDTO.class));
+    }
+
+    @Test
+    void aLiveClaimKeepsOtherSendersAway() throws Exception {
+        deliver("ORD-INV2");
+        // Another instance is sending it right now
+        Instant claimedAt = Instant.now();
+        claim("ORD-INV2", claimedAt);
+
+        EmailService email = mock(EmailService.class);
+        InvoiceDispatcher other = dispatcher(email);
+        other.onStatusChanged(delivered("ORD-INV2"));
+        other.retryUnsent();
+        other.shutdown();
+
+        verify(email, never()).sendOrderInvoice(any());
+        assertNull(reload("ORD-INV2").getInvoiceSentAt());
+    }
+
+    private InvoiceDispatcher dispatcher(EmailService email) {
+        return new InvoiceDispatcher(orderRepo, email, transactionManager, 1, 10, 24);
+    }
+
+    // Delivered a few minutes ago, so the sweep no longer leaves it to the after-commit path
+    private void deliver(String orderId) {
+        Order order = TestOrders.order(orderId, OrderStatus.DELIVERED);
+        order.setStatusChangedAt(Instant.now().minusSeconds(300));
+        orderRepo.save(order);
+    }
+
+    private void claim(String orderId, Instant claimedAt) {
+        new TransactionTemplate(transactionManager).executeWithoutResult(
+                status -> assertEquals(1, orderRepo.claimInvoice(orderId, claimedAt, claimedAt.minusSeconds(600))));
+    }
+
+    private Order reload(String orderId) {
+        return orderRepo.findById(orderId).orElseThrow();
+    }
+
+    private static OrderStatusChangedEvent delivered(String orderId) {
+        return new OrderStatusChangedEvent(orderId, TestOrders.EMAIL, Instant.now(), PaymentMode.COD,
+                BigDecimal.valueOf(100), OrderStatus.OUT_FOR_DELIVERY, OrderStatus.DELIVERED, Instant.now(), null);
+    }
+}
@@ -0,0 +1,26 @@
+package com.example.BookMyShow;
+
+import java.time.ZoneId;
+import java.time.ZoneOffset;
+
+import org.springframework.boot.SpringBootConfiguration;
+import org.springframework.boot.autoconfigure.domain.EntityScan;
+import org.springframework.context.annotation.Bean;
+import org.springframework.data.jpa.repository.config.EnableJpaRepositories;
+
+/**
+ * The configuration every @DataJpaTest in this package boots from: all entities and
+ * repositories, plus the beans the services under test expect from the application.
+ * Tests add the services they exercise with @Import. Full-context tests name
+ * BookMyShowApplication explicitly instead.
+ */
+@SpringBootConfiguration
+@EntityScan(basePackages = "dbmodel")
+@EnableJpaRepositories(basePackages = "repository")
+public class JpaTestConfiguration {
+
+    @Bean
+    ZoneId reportZone() {
+        return ZoneOffset.UTC;
+    }
+}
@@ -0,0 +1,149 @@
+package com.example.BookMyShow;
+
+import static com.example.BookMyShow.TestOrders.change;
+import static com.example.BookMyShow.TestOrders.T0;
+import static com.example.BookMyShow.TestOrders.placed;
+import static com.example.BookMyShow.TestOrders.response;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import dbmodel.OrderStatus;
+import dbmodel.PaymentMode;
+import dto.KitchenQueuePageDTO;
+import dto.KitchenTicket;
+import dto.OrderPlacedEvent;
+import repository.OrderItemRepository;
+import services.KitchenQueueService;
+import services.OrderEventStream;
+import services.OrderService;
+import services.PrepAggregator;
+
+class KitchenQueueServiceTests {
+
+    private final OrderService orderService = mock(OrderService.class);
+    private final KitchenQueueService kitchen = new KitchenQueueService(orderService,
+            new PrepAggregator(mock(OrderItemRepository.class), mock(OrderEventStream.class)));
+
+    @Test
+    void pagesAreOldestFirstAndFollowTheCursor() {
+        when(orderService.getOrdersByStatuses(any())).thenReturn(List.of(
+                response("ORD-A", OrderStatus.ORDERED, 0, "Biryani", 2),
+                response("ORD-B", OrderStatus.ORDERED, 1, "Biryani", 2),
+                response("ORD-C", OrderStatus.ORDERED, 2, "Biryani", 2),
+                response("ORD-D", OrderStatus.PREPARING, 3, "Biryani", 2)));
+        kitchen.rebuild();
+
+        KitchenQueuePageDTO first = kitchen.page("ordered", null, 2);
+        assertEquals(List.of("ORD-A", "ORD-B"), ids(first));
+        assertEquals(3, first.getTotal());
+
+        KitchenQueuePageDTO second = kitchen.page("ORDERED", first.getNextCursor(), 2);
+        assertEquals(List.of("ORD-C"), ids(second));
+        assertNull(second.getNextCursor());
+    }
+
+    @Test
+    void transitionsMoveOrdersBetweenQueuesWithoutDatabaseReads() {
+        when(orderService.getOrdersByStatuses(any())).thenReturn(List.of(
+                response("ORD-A", OrderStatus.ORDERED, 0, "Biryani", 2),
+                response("ORD-B", OrderStatus.ORDERED, 1, "Biryani", 2)));
+        kitchen.rebuild();
+
+        kitchen.onStatusChanged(change("ORD-A", OrderStatus.ORDERED, OrderStatus.PREPARING, 10));
+        assertEquals(List.of("ORD-B"), ids(kitchen.page("ORDERED", null, 50)));
+        assertEquals(List.of("ORD-A"), ids(kitchen.page("PREPARING", null, 50)));
+
+        kitchen.onStatusChanged(change("ORD-A", OrderStatus.PREPARING, OrderStatus.DELIVERED, 20));
+        assertEquals(0, kitchen.page("PREPARING", null, 50).getTotal());
+        // A late event older than the last applied change is ignored
+        kitchen.onStatusChanged(change("ORD-B", OrderStatus.ORDERED, OrderStatus.OUT_FOR_DELIVERY, 30));
+        kitchen.onStatusChanged(change("ORD-B", OrderStatus.ORDERED, OrderStatus.PREPARING, 25));
+        assertEquals(List.of("ORD-B"), ids(kitchen.page("OUT_FOR_DELIVERY", null, 50)));
+
+        verify(orderService, never()).getOrdersByIds(any());
+    }
+
+    @Test
+    void newOrdersAreTicketedFromThePlacedEvent() {
+        when(orderService.getOrdersByStatuses(any())).thenReturn(List.of());
+        kitchen.rebuild();
+
+        kitchen.onOrderPlaced(new OrderPlacedEvent("ORD-N", "n@example.com", T0.plusSeconds(5), OrderStatus.ORDERED,
+                PaymentMode.COD, BigDecimal.TEN, "Nina", "Street 2", List.of(new OrderPlacedEvent.Item("Biryani", 2))));
+
+        KitchenTicket ticket = kitchen.page("ORDERED", null, 50).getTickets().get(0);
+        assertEquals("ORD-N", ticket.orderId());
+        assertEquals("Street 2", ticket.address());
+        assertEquals(List.of(new KitchenTicket.Line("Biryani", 2)), ticket.items());
+        verify(orderService, never()).getOrdersByIds(any());
+    }
+
+    @Test
+    void aTransitionForAnUnseenOrderLoadsItOnce() {
+        when(orderService.getOrdersByStatuses(any())).thenReturn(List.of());
+        kitchen.rebuild();
+        when(orderService.getOrdersByIds(List.of("ORD-M"))).thenReturn(List.of(response("ORD-M", OrderStatus.PREPARING, 5, "Biryani", 2)));
+
+        kitchen.onStatusChanged(change("ORD-M", OrderStatus.ORDERED, OrderStatus.PREPARING, 6));
+        // The overtaken placed event does not replace the loaded ticket
+        kitchen.onOrderPlaced(placed("ORD-M", 5));
+
+        assertEquals(List.of("ORD-M"), ids(kitchen.page("PREPARING", null, 50)));
+        assertEquals(0, kitchen.page("ORDERED", null, 50).getTotal());
+        verify(orderService).getOrdersByIds(List.of("ORD-M"));
+    }
+
+    @Test
+    void aPlacedEventHandledAfterDeliveryDoesNotReviveTheOrder() {
+        when(orderService.getOrdersByStatuses(any())).thenReturn(List.of());
+        kitchen.rebuild();
+
+        kitchen.onStatusChanged(change("ORD-LATE", OrderStatus.OUT_FOR_DELIVERY, OrderStatus.DELIVERED, 60));
+        kitchen.onOrderPlaced(placed("ORD-LATE", 0));
+
+        assertEquals(0, kitchen.page("ORDERED", null, 50).getTotal());
+    }
+
+    @Test
+    void reconcileAppliesChangesMadeOnOtherInstancesOnceSeenTwice() {
+        when(orderService.getOrdersByStatuses(any())).thenReturn(List.of(
+                response("ORD-A", OrderStatus.ORDERED, 0, "Biryani", 2),
+                response("ORD-B", OrderStatus.ORDERED, 1, "Biryani", 2)));
+        kitchen.rebuild();
+        // Elsewhere: ORD-A delivered, ORD-B moved on, ORD-C placed
+        when(orderService.getOrdersByStatuses(any())).thenReturn(List.of(
+                response("ORD-B", OrderStatus.PREPARING, 1, "Biryani", 2),
+                response("ORD-C", OrderStatus.ORDERED, 2, "Biryani", 2)));
+
+        assertEquals(0, kitchen.reconcile().get("corrected"));
+        assertEquals(List.of("ORD-A", "ORD-B"), ids(kitchen.page("ORDERED", null, 50)));
+
+        assertEquals(3, kitchen.reconcile().get("corrected"));
+        assertEquals(List.of("ORD-C"), ids(kitchen.page("ORDERED", null, 50)));
+        assertEquals(List.of("ORD-B"), ids(kitchen.page("PREPARING", null, 50)));
+        assertEquals(0, kitchen.reconcile().get("pendingDrift"));
+    }
+
+    @Test
+    void deliveredIsNotAQueue() {
+        when(orderService.getOrdersByStatuses(any())).thenReturn(List.of());
+        kitchen.rebuild();
+
+        assertThrows(IllegalArgumentException.class, () -> kitchen.page("DELIVERED", null, 50));
+    }
+
+    private static List<String> ids(KitchenQueuePageDTO page) {
+        return page.getTickets().stream().map(KitchenTicket::orderId).toList();
+    }
+}
@@ -0,0 +1,57 @@
+package com.example.BookMyShow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import dbmodel.OrderStatus;
+import dbmodel.PaymentMode;
+import dto.OrderPlacedEvent;
+import dto.OrderStatusChangedEvent;
+import repository.OrderRepository;
+import services.OrderAnalyticsCache;
+
+class OrderAnalyticsCacheTests {
+
+    private static final Instant T0 = Instant.parse("2025-01-01T10:00:00Z");
+
+    private final OrderRepository orderRepo = mock(OrderRepository.class);
+    private final OrderAnalyticsCache cache = new OrderAnalyticsCache(orderRepo, mock(PlatformTransactionManager.class));
+
+    @Test
+    void ordersWithCollidingIdHashesInTheSameSecondStayApart() {
+        when(orderRepo.streamAllFacts()).thenReturn(Stream.empty());
+        cache.load();
+        // "Aa" and "BB" share a String hashCode
+        assertEquals("Aa".hashCode(), "BB".hashCode());
+        cache.onOrderPlaced(placed("Aa"));
+        cache.onOrderPlaced(placed("BB"));
+
+        cache.onStatusChanged(new OrderStatusChangedEvent("BB", "a@example.com", T0, PaymentMode.UPI, BigDecimal.TEN,
+                OrderStatus.ORDERED, OrderStatus.DELIVERED, T0.plusSeconds(60), T0));
+
+        List<Integer> statuses = cache.scan(T0, T0.plusSeconds(1), (columns, from, to) -> {
+            int ordered = 0, delivered = 0;
+            for (int i = from; i < to; i++) {
+                if (columns.status[i] == OrderStatus.ORDERED.ordinal()) ordered++;
+                if (columns.status[i] == OrderStatus.DELIVERED.ordinal()) delivered++;
+            }
+            return List.of(ordered, delivered);
+        });
+        assertEquals(List.of(1, 1), statuses);
+        assertEquals(2, cache.stats().get("rows"));
+    }
+
+    private static OrderPlacedEvent placed(String orderId) {
+        return new OrderPlacedEvent(orderId, "a@example.com", T0, OrderStatus.ORDERED, PaymentMode.UPI, BigDecimal.TEN,
+                "Asha", "Street 1", List.of());
+    }
+}
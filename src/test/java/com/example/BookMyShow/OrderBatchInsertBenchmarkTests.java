@@ -0,0 +1,159 @@
+package com.example.BookMyShow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.lang.reflect.InvocationTargetException;
+import java.lang.reflect.Proxy;
+import java.math.BigDecimal;
+import java.sql.Connection;
+import java.sql.PreparedStatement;
+import java.sql.Statement;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.config.BeanPostProcessor;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.boot.test.context.TestConfiguration;
+import org.springframework.context.annotation.Bean;
+import org.springframework.test.context.ActiveProfiles;
+
+import dbmodel.Order;
+import dbmodel.OrderItem;
+import dbmodel.OrderStatus;
+import dbmodel.PaymentMode;
+import jakarta.persistence.EntityManager;
+import repository.OrderItemRepository;
+import repository.OrderRepository;
+
+/**
+ * Counts JDBC round trips (statement executions and batch executions) needed to
+ * persist one order with a 10-line cart, item-by-item versus cascaded and batched.
+ */
+@DataJpaTest(properties = {
+        "spring.jpa.properties.hibernate.jdbc.batch_size=50",
+        "spring.jpa.properties.hibernate.order_inserts=true"
+})
+@ActiveProfiles("test")
+class OrderBatchInsertBenchmarkTests {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderBatchInsertBenchmarkTests.class);
+
+    private static final int CART_LINES = 10;
+
+    private static final AtomicInteger roundTrips = new AtomicInteger();
+    private static final AtomicInteger orderSeq = new AtomicInteger();
+
+    @TestConfiguration
+    static class CountingDataSource {
+
+        // Wraps the pool so every execute*/executeBatch on any statement is counted
+        @Bean
+        static BeanPostProcessor countingDataSource() {
+            return new BeanPostProcessor() {
+                @Override
+                public Object postProcessAfterInitialization(Object bean, String beanName) {
+                    if (!(bean instanceof DataSource dataSource)) return bean;
+                    return proxy(DataSource.class, dataSource);
+                }
+            };
+        }
+    }
+
+    @Autowired
+    private OrderRepository orderRepo;
+
+    @Autowired
+    private OrderItemRepository orderItemRepo;
+
+    @Autowired
+    private EntityManager em;
+
+    @Test
+    void batchedCascadeNeedsFarFewerRoundTripsThanItemByItemSaves() {
+        // Warm up both paths so one-off metadata and sequence lookups are not counted
+        saveItemByItem();
+        saveCascaded();
+
+        roundTrips.set(0);
+        saveItemByItem();
+        int before = roundTrips.get();
+
+        roundTrips.set(0);
+        saveCascaded();
+        int after = roundTrips.get();
+
+        log.info("[BATCH INSERT] {}-line cart: {} round trips item-by-item, {} batched", CART_LINES, before, after);
+        assertTrue(before >= CART_LINES + 1, "item-by-item should insert each line separately");
+        // One batch for the order, one for all of its items
+        assertEquals(2, after);
+    }
+
+    // What placeOrder did before: save the order, then save and insert each line on its own
+    private void saveItemByItem() {
+        Order order = newOrder();
+        orderRepo.save(order);
+        em.flush();
+        for (int i = 0; i < CART_LINES; i++) {
+            orderItemRepo.save(new OrderItem(order, "Dish " + i, 1, BigDecimal.TEN));
+            em.flush();
+        }
+        em.clear();
+    }
+
+    // What placeOrder does now: attach the lines and let the cascade batch them at flush
+    private void saveCascaded() {
+        Order order = newOrder();
+        for (int i = 0; i < CART_LINES; i++) {
+            order.getItems().add(new OrderItem(order, "Dish " + i, 1, BigDecimal.TEN));
+        }
+        orderRepo.save(order);
+        em.flush();
+        em.clear();
+    }
+
+    private static Order newOrder() {
+        Order order = new Order();
+        order.setOrderId("ORD-B" + orderSeq.incrementAndGet());
+        order.setUserEmail("batch@example.com");
+        order.setAddress("Street 1");
+        order.setTotalAmount(BigDecimal.valueOf(100));
+        order.setFinalAmount(BigDecimal.valueOf(100));
+        order.setStatus(OrderStatus.ORDERED);
+        order.setPaymentMode(PaymentMode.values()[0]);
+        order.setOrderedAt(Instant.now());
+        return order;
+    }
+
+    @SuppressWarnings("unchecked")
+    private static <T> T proxy(Class<T> type, T target) {
+        return (T) Proxy.newProxyInstance(type.getClassLoader(), new Class<?>[] { type }, (p, method, args) -> {
+            String name = method.getName();
+            if (target instanceof Statement && name.startsWith("execute")) {
+                roundTrips.incrementAndGet();
+            }
+            Object result;
+            try {
+                result = method.invoke(target, args);
+            } catch (InvocationTargetException e) {
+                throw e.getCause();
+            }
+            if (result instanceof Connection c && name.equals("getConnection")) {
+                return proxy(Connection.class, c);
+            }
+            if (result instanceof PreparedStatement ps) {
+                return proxy(PreparedStatement.class, ps);
+            }
+            if (result instanceof Statement st && !(result instanceof PreparedStatement)) {
+                return proxy(Statement.class, st);
+            }
+            return result;
+        });
+    }
+}
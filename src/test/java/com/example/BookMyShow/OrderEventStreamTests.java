@@ -0,0 +1,160 @@
+package com.example.BookMyShow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.io.IOException;
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+import dbmodel.OrderStatus;
+import dbmodel.PaymentMode;
+import dto.OrderPlacedEvent;
+import dto.OrderStatusChangedEvent;
+import services.OrderEventStream;
+
+class OrderEventStreamTests {
+
+    private final OrderEventStream stream = newStream(2, 60_000);
+
+    @Test
+    void customersOnlySeeTheirOwnOrdersAndAdminsSeeEverything() throws Exception {
+        RecordingEmitter alice = new RecordingEmitter(null);
+        RecordingEmitter bob = new RecordingEmitter(null);
+        RecordingEmitter kitchen = new RecordingEmitter(null);
+        stream.attach("Alice@example.com", alice);
+        stream.attach("bob@example.com", bob);
+        stream.attach(null, kitchen);
+
+        stream.onOrderPlaced(placed("ORD-1", "alice@example.com"));
+        stream.onStatusChanged(changed("ORD-1", "alice@example.com"));
+        stream.onOrderPlaced(placed("ORD-2", "bob@example.com"));
+
+        // One "connected" comment plus the events each subscriber should get
+        awaitSends(alice, 3);
+        awaitSends(bob, 2);
+        awaitSends(kitchen, 4);
+        assertEquals(3, alice.sends.size());
+        assertEquals(2, bob.sends.size());
+        assertEquals(4, kitchen.sends.size());
+    }
+
+    @Test
+    void slowSubscriberIsEvictedWithoutHoldingUpOthers() throws Exception {
+        CountDownLatch stuck = new CountDownLatch(1);
+        RecordingEmitter slow = new RecordingEmitter(stuck);
+        RecordingEmitter fast = new RecordingEmitter(null);
+        stream.attach(null, slow);
+        stream.attach(null, fast);
+
+        // Paced so the fast subscriber keeps up; the stalled one fills its 4-slot buffer and is dropped
+        awaitSends(fast, 1);
+        for (int i = 0; i < 20; i++) {
+            stream.onOrderPlaced(placed("ORD-S" + i, "x@example.com"));
+            awaitSends(fast, i + 2);
+        }
+
+        assertEquals(1L, stream.stats().get("evictedSlow"));
+        assertEquals(1, stream.stats().get("subscribers"));
+        // Completing while the send is blocked would block too; the sender completes it once the send returns
+        stuck.countDown();
+        assertTrue(slow.completedLatch.await(5, TimeUnit.SECONDS));
+        stream.shutdown();
+    }
+
+    @Test
+    void blockedWritesAreTimedOutAndTheirSendersReplaced() throws Exception {
+        OrderEventStream timed = newStream(2, 0);
+        CountDownLatch stuck = new CountDownLatch(1);
+        RecordingEmitter first = new RecordingEmitter(stuck);
+        RecordingEmitter second = new RecordingEmitter(stuck);
+        timed.attach(null, first);
+        timed.attach(null, second);
+        // Both sender threads are now inside a send that never returns
+        assertTrue(first.entered.await(5, TimeUnit.SECONDS));
+        assertTrue(second.entered.await(5, TimeUnit.SECONDS));
+
+        timed.checkWriteTimeouts();
+        assertEquals(2L, timed.stats().get("writeTimeouts"));
+        assertEquals(2, timed.stats().get("stuckSenders"));
+        assertEquals(0, timed.stats().get("subscribers"));
+
+        RecordingEmitter fast = new RecordingEmitter(null);
+        timed.attach(null, fast);
+        timed.onOrderPlaced(placed("ORD-T1", "x@example.com"));
+        awaitSends(fast, 2);
+
+        // Once the writes fail or return the extra threads go away again
+        stuck.countDown();
+        assertTrue(first.completedLatch.await(5, TimeUnit.SECONDS));
+        assertTrue(second.completedLatch.await(5, TimeUnit.SECONDS));
+        timed.shutdown();
+    }
+
+    private static OrderEventStream newStream(int senders, long writeTimeoutMillis) {
+        return new OrderEventStream(new ObjectMapper().registerModule(new JavaTimeModule()), 60_000, 4, 100, senders,
+                writeTimeoutMillis);
+    }
+
+    // Waits until the emitter has received count sends in total
+    private static void awaitSends(RecordingEmitter emitter, int count) throws InterruptedException {
+        int missing = count - emitter.awaited;
+        assertTrue(emitter.sent.tryAcquire(missing, 5, TimeUnit.SECONDS), "expected " + count + " sends");
+        emitter.awaited = count;
+        assertEquals(count, emitter.sends.size());
+    }
+
+    private static OrderPlacedEvent placed(String orderId, String email) {
+        return new OrderPlacedEvent(orderId, email, Instant.now(), OrderStatus.ORDERED, PaymentMode.UPI,
+                BigDecimal.valueOf(250), "Sam", "Street 1", List.of());
+    }
+
+    private static OrderStatusChangedEvent changed(String orderId, String email) {
+        return new OrderStatusChangedEvent(orderId, email, Instant.now(), PaymentMode.UPI, BigDecimal.valueOf(250),
+                OrderStatus.ORDERED, OrderStatus.PREPARING, Instant.now(), null);
+    }
+
+    // Records sends instead of writing to a response; optionally blocks on the first send like a stalled socket
+    private static class RecordingEmitter extends SseEmitter {
+        final List<SseEventBuilder> sends = new CopyOnWriteArrayList<>();
+        final CountDownLatch block;
+        final CountDownLatch entered = new CountDownLatch(1);
+        final CountDownLatch completedLatch = new CountDownLatch(1);
+        final Semaphore sent = new Semaphore(0);
+        int awaited;
+
+        RecordingEmitter(CountDownLatch block) {
+            this.block = block;
+        }
+
+        @Override
+        public void send(SseEventBuilder builder) throws IOException {
+            if (block != null) {
+                entered.countDown();
+                try {
+                    block.await();
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+            }
+            sends.add(builder);
+            sent.release();
+        }
+
+        @Override
+        public synchronized void complete() {
+            completedLatch.countDown();
+        }
+    }
+}
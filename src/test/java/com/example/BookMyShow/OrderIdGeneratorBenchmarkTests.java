@@ -0,0 +1,103 @@
+package com.example.BookMyShow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+import org.junit.jupiter.api.Tag;
+import org.junit.jupiter.api.Test;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.mock.env.MockEnvironment;
+
+import services.OrderIdGenerator;
+import services.SnowflakeOrderIdGenerator;
+
+/**
+ * Uniqueness, ordering and throughput of the order id generator under contention.
+ */
+class OrderIdGeneratorBenchmarkTests {
+
+    private static final Logger log = LoggerFactory.getLogger(OrderIdGeneratorBenchmarkTests.class);
+
+    private static final int THREADS = 8;
+    private static final int IDS_PER_THREAD = 125_000;
+
+    @Test
+    void idsAreUniqueAcrossThreadsAndNodesAndOrderedWithinAThread() throws Exception {
+        OrderIdGenerator nodeA = new SnowflakeOrderIdGenerator("1");
+        OrderIdGenerator nodeB = new SnowflakeOrderIdGenerator("2");
+        Set<String> seen = ConcurrentHashMap.newKeySet(2 * THREADS * IDS_PER_THREAD);
+
+        run(THREADS, () -> {
+            OrderIdGenerator generator = Thread.currentThread().getId() % 2 == 0 ? nodeA : nodeB;
+            String previous = "";
+            for (int i = 0; i < IDS_PER_THREAD; i++) {
+                String id = generator.nextId();
+                assertTrue(id.compareTo(previous) > 0, "ids must increase: " + previous + " then " + id);
+                assertTrue(id.length() <= 20, "must fit order_ID: " + id);
+                assertTrue(seen.add(id), "duplicate id " + id);
+                previous = id;
+            }
+        });
+
+        assertEquals(THREADS * IDS_PER_THREAD, seen.size());
+    }
+
+    @Test
+    void anUnsetNodeIdFailsStartupOutsideDevAndTest() {
+        assertThrows(IllegalStateException.class, () -> new SnowflakeOrderIdGenerator("", new MockEnvironment()));
+        assertThrows(IllegalStateException.class, () -> new SnowflakeOrderIdGenerator(" "));
+
+        MockEnvironment dev = new MockEnvironment();
+        dev.setActiveProfiles("dev");
+        new SnowflakeOrderIdGenerator("", dev).nextId();
+        assertThrows(IllegalArgumentException.class, () -> new SnowflakeOrderIdGenerator("1024"));
+    }
+
+    // Measurement only; run with -Pbenchmarks
+    @Test
+    @Tag("benchmark")
+    void throughput() throws Exception {
+        OrderIdGenerator generator = new SnowflakeOrderIdGenerator("7");
+        // Warm-up
+        for (int i = 0; i < 200_000; i++) generator.nextId();
+
+        long began = System.nanoTime();
+        run(THREADS, () -> {
+            for (int i = 0; i < IDS_PER_THREAD; i++) generator.nextId();
+        });
+        double seconds = (System.nanoTime() - began) / 1e9;
+
+        log.info("[ORDER ID] {} ids on {} threads: {} ids/sec, e.g. {}",
+                THREADS * IDS_PER_THREAD, THREADS, Math.round(THREADS * IDS_PER_THREAD / seconds), generator.nextId());
+    }
+
+    private static void run(int threads, Runnable body) throws Exception {
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService pool = Executors.newFixedThreadPool(threads);
+        List<Future<?>> futures = new ArrayList<>();
+        for (int t = 0; t < threads; t++) {
+            futures.add(pool.submit(() -> {
+                start.await();
+                body.run();
+                return null;
+            }));
+        }
+        start.countDown();
+        try {
+            for (Future<?> f : futures) f.get();
+        } finally {
+            pool.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,165 @@
+package com.example.BookMyShow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.SimpleTransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import dto.OrderRequestDTO;
+import repository.OrderRepository;
+import services.InsufficientInventoryException;
+import services.OrderIntakeService;
+import services.OrderIntakeService.IntakeStatus;
+import services.OrderService;
+
+class OrderIntakeServiceTests {
+
+    private final AtomicInteger ids = new AtomicInteger();
+
+    @Test
+    void badOrderInABatchOnlyRejectsItself() throws Exception {
+        OrderService orderService = mock(OrderService.class);
+        when(orderService.placeOrder(anyString(), any(OrderRequestDTO.class))).thenAnswer(inv -> {
+            OrderRequestDTO request = inv.getArgument(1);
+            if (request.getUserEmail().startsWith("short")) throw new InsufficientInventoryException("Paneer Tikka");
+            return inv.getArgument(0);
+        });
+        OrderIntakeService intake = newIntake(orderService, mock(OrderRepository.class), 100, 1, 10);
+
+        List<String> orderIds = new ArrayList<>();
+        for (int i = 0; i < 10; i++) {
+            orderIds.add(intake.submit(request(i == 3 ? "short@example.com" : "user" + i + "@example.com")));
+        }
+        // Queued before the worker starts, so all ten go out as one batch
+        intake.start();
+        awaitSettled(intake, orderIds);
+        intake.stop();
+
+        for (int i = 0; i < orderIds.size(); i++) {
+            IntakeStatus expected = i == 3 ? IntakeStatus.REJECTED : IntakeStatus.ACCEPTED;
+            assertEquals(expected, intake.status(orderIds.get(i)).status(), "order " + i);
+        }
+        assertEquals(9L, intake.stats().get("accepted"));
+        assertEquals(1L, intake.stats().get("rejected"));
+        assertEquals(1L, intake.stats().get("batchFallbacks"));
+    }
+
+    @Test
+    void fullQueueIsRefusedInsteadOfBlocking() throws Exception {
+        CountDownLatch taken = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        OrderService orderService = mock(OrderService.class);
+        when(orderService.placeOrder(anyString(), any(OrderRequestDTO.class))).thenAnswer(inv -> {
+            taken.countDown();
+            release.await();
+            return inv.getArgument(0);
+        });
+        OrderIntakeService intake = newIntake(orderService, mock(OrderRepository.class), 2, 1, 1);
+        intake.start();
+
+        // The worker holds one order, the queue holds two more
+        intake.submit(request("a@example.com"));
+        assertTrue(taken.await(5, TimeUnit.SECONDS));
+        intake.submit(request("b@example.com"));
+        intake.submit(request("c@example.com"));
+
+        assertThrows(RejectedExecutionException.class, () -> intake.submit(request("d@example.com")));
+        release.countDown();
+        intake.stop();
+        assertEquals(3L, intake.stats().get("accepted"));
+    }
+
+    @Test
+    void insideATransactionOrdersAreOnlyQueuedOnCommit() {
+        OrderIntakeService intake = newIntake(mock(OrderService.class), mock(OrderRepository.class), 10, 1, 10);
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            String committed = intake.submit(request("a@example.com"));
+            assertEquals(0, intake.stats().get("queued"));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            assertEquals(1, intake.stats().get("queued"));
+            assertEquals(IntakeStatus.QUEUED, intake.status(committed).status());
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            String rolledBack = intake.submit(request("b@example.com"));
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(s -> s.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+            assertEquals(1, intake.stats().get("queued"));
+            assertNull(intake.status(rolledBack));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void placedOrdersAreFoundAfterTheirStatusExpires() {
+        OrderRepository orderRepo = mock(OrderRepository.class);
+        when(orderRepo.existsById("ORD-PLACED")).thenReturn(true);
+        OrderIntakeService intake = newIntake(mock(OrderService.class), orderRepo, 10, 1, 10);
+
+        assertEquals(IntakeStatus.ACCEPTED, intake.status("ORD-PLACED").status());
+        assertNull(intake.status("ORD-NEVER"));
+    }
+
+    @Test
+    void invalidOrderIsRejectedBeforeQueueing() {
+        OrderIntakeService intake = newIntake(mock(OrderService.class), mock(OrderRepository.class), 10, 1, 10);
+        OrderRequestDTO empty = request("a@example.com");
+        empty.setItems(List.of());
+
+        assertThrows(IllegalArgumentException.class, () -> intake.submit(empty));
+    }
+
+    private OrderIntakeService newIntake(OrderService orderService, OrderRepository orderRepo,
+                                         int capacity, int workers, int batchSize) {
+        PlatformTransactionManager txManager = mock(PlatformTransactionManager.class);
+        when(txManager.getTransaction(any())).thenAnswer(inv -> new SimpleTransactionStatus());
+        return new OrderIntakeService(orderService, () -> "ORD-T" + ids.incrementAndGet(), orderRepo, txManager,
+                true, capacity, workers, batchSize, 30);
+    }
+
+    private static void awaitSettled(OrderIntakeService intake, List<String> orderIds) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(10);
+        while (System.nanoTime() < deadline) {
+            if (orderIds.stream().allMatch(id -> intake.status(id).status() != IntakeStatus.QUEUED)) return;
+            Thread.sleep(20);
+        }
+    }
+
+    private static OrderRequestDTO request(String email) {
+        OrderRequestDTO.OrderItemDTO item = new OrderRequestDTO.OrderItemDTO();
+        item.setFoodName("Paneer Tikka");
+        item.setQuantity(1);
+        item.setPriceAtOrder(200);
+
+        OrderRequestDTO request = new OrderRequestDTO();
+        request.setUserEmail(email);
+        request.setPaymentMode("COD");
+        request.setItems(new ArrayList<>(List.of(item)));
+        return request;
+    }
+}
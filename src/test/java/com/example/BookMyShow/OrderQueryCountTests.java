@@ -0,0 +1,130 @@
+package com.example.BookMyShow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import org.hibernate.SessionFactory;
+import org.hibernate.stat.Statistics;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.annotation.Import;
+import org.springframework.test.context.ActiveProfiles;
+
+import dbmodel.Order;
+import dbmodel.OrderItem;
+import dbmodel.OrderStatus;
+import dbmodel.PaymentMode;
+import dto.OrderPageDTO;
+import dto.OrderResponseDTO;
+import jakarta.persistence.EntityManager;
+import repository.OrderItemRepository;
+import repository.OrderRepository;
+import services.InventoryLedger;
+import services.InventoryService;
+import services.OrderService;
+import services.SalesRollupService;
+import services.SnowflakeOrderIdGenerator;
+
+/**
+ * Guards the order listing paths against N+1 item loading by counting the SQL
+ * statements Hibernate prepares for each one.
+ */
+@DataJpaTest(properties = "spring.jpa.properties.hibernate.generate_statistics=true")
+@ActiveProfiles("test")
+@Import({ OrderService.class, SalesRollupService.class, InventoryService.class, InventoryLedger.class,
+        SnowflakeOrderIdGenerator.class })
+class OrderQueryCountTests {
+
+    private static final int ORDERS = 12;
+    private static final int ITEMS_PER_ORDER = 3;
+
+    @Autowired
+    private OrderRepository orderRepo;
+
+    @Autowired
+    private OrderItemRepository orderItemRepo;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private EntityManager em;
+
+    private Statistics stats;
+
+    @BeforeEach
+    void seed() {
+        Instant base = Instant.parse("2025-01-01T10:00:00Z");
+        for (int i = 0; i < ORDERS; i++) {
+            Order order = new Order();
+            order.setOrderId("ORD-T" + i);
+            order.setUserEmail(i % 2 == 0 ? "even@example.com" : "odd@example.com");
+            order.setAddress("Street " + i);
+            order.setTotalAmount(BigDecimal.valueOf(300));
+            order.setFinalAmount(BigDecimal.valueOf(300));
+            order.setStatus(i % 3 == 0 ? OrderStatus.PREPARING : OrderStatus.ORDERED);
+            order.setPaymentMode(PaymentMode.values()[i % PaymentMode.values().length]);
+            order.setOrderedAt(base.plusSeconds(60L * i));
+            for (int j = 0; j < ITEMS_PER_ORDER; j++) {
+                order.getItems().add(new OrderItem(order, "Dish " + j, 1, BigDecimal.valueOf(100)));
+            }
+            orderRepo.save(order);
+        }
+        em.flush();
+        em.clear();
+
+        stats = em.getEntityManagerFactory().unwrap(SessionFactory.class).getStatistics();
+        stats.clear();
+    }
+
+    @Test
+    void couponFirstOrderCheckNeverTouchesItems() {
+        assertTrue(orderRepo.existsByUserEmail("odd@example.com"));
+
+        assertEquals(1, stats.getPrepareStatementCount());
+        assertEquals(0, stats.getCollectionLoadCount());
+    }
+
+    @Test
+    void keysetPageBatchesItemLoading() {
+        OrderPageDTO page = orderService.getOrdersPageForAdmin(null, null, null, null, null, null, 5);
+
+        assertEquals(5, page.getOrders().size());
+        assertTrue(page.getOrders().stream().allMatch(o -> o.getItems().size() == ITEMS_PER_ORDER));
+        // One statement for the page, one IN query for all of its items
+        assertEquals(2, stats.getPrepareStatementCount());
+        assertEquals(0, stats.getEntityLoadCount());
+    }
+
+    @Test
+    void filteredPagesFollowTheCursorWithoutOverlap() {
+        OrderPageDTO first = orderService.getOrdersPageForAdmin("ordered", null, "even@example.com", null, null, null, 2);
+        OrderPageDTO second = orderService.getOrdersPageForAdmin("ordered", null, "even@example.com", null, null,
+                first.getNextCursor(), 2);
+
+        // Even orders not divisible by three: 10, 8, 4, 2
+        assertEquals(List.of("ORD-T10", "ORD-T8"), first.getOrders().stream().map(OrderResponseDTO::getOrderId).toList());
+        assertEquals(List.of("ORD-T4", "ORD-T2"), second.getOrders().stream().map(OrderResponseDTO::getOrderId).toList());
+        assertEquals(0, stats.getEntityLoadCount());
+    }
+
+    @Test
+    void projectedListingsNeverHydrateEntities() {
+        List<OrderResponseDTO> mine = orderService.getOrdersByUserEmail("odd@example.com");
+        List<OrderResponseDTO> all = orderService.getAllOrdersForAdmin();
+
+        assertEquals(ORDERS / 2, mine.size());
+        assertEquals(ORDERS, all.size());
+        assertTrue(all.stream().allMatch(o -> o.getItems().size() == ITEMS_PER_ORDER));
+        assertTrue(all.get(0).getOrderedAt().isAfter(all.get(ORDERS - 1).getOrderedAt()));
+        // Orders query plus one item IN query per listing, and nothing in the persistence context
+        assertEquals(4, stats.getPrepareStatementCount());
+        assertEquals(0, stats.getEntityLoadCount());
+    }
+}
@@ -0,0 +1,153 @@
+package com.example.BookMyShow;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.sql.Statement;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.List;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.autoconfigure.orm.jpa.DataJpaTest;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.annotation.Import;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.core.ParameterizedPreparedStatementSetter;
+import org.springframework.test.context.ActiveProfiles;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import dbmodel.Order;
+import dbmodel.OrderStatus;
+import dto.OrderStatusChangedEvent;
+import dto.OrderStatusUpdateResult;
+import dto.OrderStatusUpdateResult.Outcome;
+import jakarta.persistence.EntityManager;
+import repository.OrderRepository;
+import services.BulkOrderStatusService;
+import services.InventoryLedger;
+import services.InventoryService;
+import services.OrderService;
+import services.OrderStatusConflictException;
+import services.SalesRollupService;
+import services.SnowflakeOrderIdGenerator;
+
+@DataJpaTest
+@ActiveProfiles("test")
+@Import({ OrderService.class, BulkOrderStatusService.class, SalesRollupService.class, InventoryService.class,
+        InventoryLedger.class, SnowflakeOrderIdGenerator.class })
+@RecordApplicationEvents
+class OrderStatusTransitionTests {
+
+    @Autowired
+    private OrderRepository orderRepo;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private BulkOrderStatusService bulkStatusService;
+
+    @Autowired
+    private SalesRollupService rollupService;
+
+    @Autowired
+    private ApplicationEventPublisher publisher;
+
+    @Autowired
+    private DataSource dataSource;
+
+    @Autowired
+    private EntityManager em;
+
+    @Autowired
+    private ApplicationEvents events;
+
+    @Test
+    void ordersOnlyMoveForward() {
+        assertTrue(OrderStatus.ORDERED.canMoveTo(OrderStatus.PREPARING));
+        assertTrue(OrderStatus.PREPARING.canMoveTo(OrderStatus.DELIVERED));
+        assertFalse(OrderStatus.OUT_FOR_DELIVERY.canMoveTo(OrderStatus.PREPARING));
+        assertFalse(OrderStatus.PREPARING.canMoveTo(OrderStatus.PREPARING));
+        assertTrue(OrderStatus.DELIVERED.isFinal());
+    }
+
+    @Test
+    void backwardAndRepeatedChangesAreConflicts() {
+        save("ORD-FSM1", OrderStatus.ORDERED);
+
+        assertEquals("Order Status Updated to PREPARING", orderService.updateOrderStatus("ORD-FSM1", "preparing"));
+        em.clear();
+        assertThrows(OrderStatusConflictException.class, () -> orderService.updateOrderStatus("ORD-FSM1", "PREPARING"));
+        assertThrows(OrderStatusConflictException.class, () -> orderService.updateOrderStatus("ORD-FSM1", "ORDERED"));
+
+        em.clear();
+        assertEquals(OrderStatus.PREPARING, orderRepo.findById("ORD-FSM1").orElseThrow().getStatus());
+        assertEquals(1, published().size());
+    }
+
+    @Test
+    void deliveringTwicePublishesOneEvent() {
+        save("ORD-FSM2", OrderStatus.OUT_FOR_DELIVERY);
+
+        orderService.updateOrderStatus("ORD-FSM2", "DELIVERED");
+        em.clear();
+        assertThrows(OrderStatusConflictException.class, () -> orderService.updateOrderStatus("ORD-FSM2", "DELIVERED"));
+
+        assertEquals(1, published().stream().filter(e -> e.to() == OrderStatus.DELIVERED).count());
+    }
+
+    @Test
+    void aChangeBasedOnAStaleReadMisses() {
+        save("ORD-FSM3", OrderStatus.ORDERED);
+        em.flush();
+        // Another admin moves the order; this persistence context still holds the old status and version
+        bulkStatusService.updateStatuses(List.of("ORD-FSM3"), "OUT_FOR_DELIVERY");
+        events.clear();
+
+        assertThrows(OrderStatusConflictException.class, () -> orderService.updateOrderStatus("ORD-FSM3", "PREPARING"));
+
+        em.clear();
+        assertEquals(OrderStatus.OUT_FOR_DELIVERY, orderRepo.findById("ORD-FSM3").orElseThrow().getStatus());
+        assertTrue(published().isEmpty());
+    }
+
+    @Test
+    void rowsWithoutAnUpdateCountAreReRead() {
+        save("ORD-NI1", OrderStatus.ORDERED);
+        save("ORD-NI2", OrderStatus.ORDERED);
+        em.flush();
+        // A driver that reports SUCCESS_NO_INFO, while another writer bumps ORD-NI2 between the read and the update
+        JdbcTemplate noInfo = new JdbcTemplate(dataSource) {
+            @Override
+            public <T> int[][] batchUpdate(String sql, Collection<T> batchArgs, int batchSize,
+                                           ParameterizedPreparedStatementSetter<T> pss) {
+                update("UPDATE orders SET version = version + 1 WHERE order_ID = 'ORD-NI2'");
+                int[][] counts = super.batchUpdate(sql, batchArgs, batchSize, pss);
+                for (int[] batch : counts) Arrays.fill(batch, Statement.SUCCESS_NO_INFO);
+                return counts;
+            }
+        };
+        BulkOrderStatusService service = new BulkOrderStatusService(orderRepo, noInfo, rollupService, publisher);
+
+        List<OrderStatusUpdateResult> results = service.updateStatuses(List.of("ORD-NI1", "ORD-NI2"), "PREPARING");
+
+        assertEquals(Outcome.UPDATED, results.get(0).outcome());
+        assertEquals(Outcome.CONFLICT, results.get(1).outcome());
+        assertEquals(List.of("ORD-NI1"), published().stream().map(OrderStatusChangedEvent::orderId).toList());
+    }
+
+    private List<OrderStatusChangedEvent> published() {
+        return events.stream(OrderStatusChangedEvent.class).toList();
+    }
+
+    private void save(String orderId, OrderStatus status) {
+        orderRepo.save(TestOrders.order(orderId, status));
+    }
+}
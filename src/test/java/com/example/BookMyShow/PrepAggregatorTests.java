@@ -0,0 +1,84 @@
+package com.example.BookMyShow;
+
+import static com.example.BookMyShow.TestOrders.change;
+import static com.example.BookMyShow.TestOrders.response;
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyList;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.List;
+
+import org.junit.jupiter.api.Test;
+
+import dbmodel.OrderStatus;
+import dto.DishPrepDTO;
+import repository.DishQuantity;
+import repository.OrderItemRepository;
+import services.KitchenQueueService;
+import services.OrderEventStream;
+import services.OrderService;
+import services.PrepAggregator;
+
+class PrepAggregatorTests {
+
+    private final OrderService orderService = mock(OrderService.class);
+    private final OrderItemRepository orderItemRepo = mock(OrderItemRepository.class);
+    private final OrderEventStream eventStream = mock(OrderEventStream.class);
+    private final PrepAggregator prep = new PrepAggregator(orderItemRepo, eventStream);
+    private final KitchenQueueService kitchen = new KitchenQueueService(orderService, prep);
+
+    @Test
+    void countersFollowOrdersThroughTheKitchen() {
+        when(orderService.getOrdersByStatuses(any())).thenReturn(List.of(
+                response("ORD-1", OrderStatus.ORDERED, 0, "Biryani", 2),
+                response("ORD-2", OrderStatus.ORDERED, 0, "Biryani", 3),
+                response("ORD-3", OrderStatus.PREPARING, 0, "Naan", 4)));
+        kitchen.rebuild();
+        assertEquals(List.of(new DishPrepDTO("Biryani", 5, 0, 5), new DishPrepDTO("Naan", 0, 4, 4)), prep.snapshot());
+
+        kitchen.onStatusChanged(change("ORD-1", OrderStatus.ORDERED, OrderStatus.PREPARING, 1));
+        kitchen.onStatusChanged(change("ORD-3", OrderStatus.PREPARING, OrderStatus.OUT_FOR_DELIVERY, 2));
+
+        assertEquals(List.of(new DishPrepDTO("Biryani", 3, 2, 5)), prep.snapshot());
+
+        // Several changes, one stream message
+        prep.push();
+        prep.push();
+        verify(eventStream, times(1)).broadcast(eq(PrepAggregator.STREAM_EVENT), anyList());
+    }
+
+    @Test
+    void driftIsCorrectedOnlyWhenSeenTwice() {
+        when(orderService.getOrdersByStatuses(any())).thenReturn(List.of(
+                response("ORD-1", OrderStatus.ORDERED, 0, "Biryani", 2)));
+        kitchen.rebuild();
+        // The database has one more biryani than the counters (e.g. a missed event)
+        when(orderItemRepo.sumQuantitiesByStatus(any())).thenReturn(List.of(
+                quantity("Biryani", OrderStatus.ORDERED, 3)));
+
+        assertEquals(0, prep.reconcile().get("corrected"));
+        assertEquals(2L, prep.snapshot().get(0).ordered());
+
+        assertEquals(1, prep.reconcile().get("corrected"));
+        assertEquals(3L, prep.snapshot().get(0).ordered());
+        assertEquals(0, prep.reconcile().get("pendingDrift"));
+    }
+
+    private static DishQuantity quantity(String foodName, OrderStatus status, long quantity) {
+        return new DishQuantity() {
+            @Override
+            public String getFoodName() { return foodName; }
+
+            @Override
+            public OrderStatus getStatus() { return status; }
+
+            @Override
+            public long getQuantity() { return quantity; }
+        };
+    }
+}
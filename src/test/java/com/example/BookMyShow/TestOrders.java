@@ -0,0 +1,61 @@
+package com.example.BookMyShow;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.util.List;
+
+import dbmodel.Order;
+import dbmodel.OrderStatus;
+import dbmodel.PaymentMode;
+import dto.OrderPlacedEvent;
+import dto.OrderResponseDTO;
+import dto.OrderStatusChangedEvent;
+
+/**
+ * Order fixtures shared by the tests in this package. Tests change the few fields
+ * they care about on what these return.
+ */
+final class TestOrders {
+
+    static final String EMAIL = "orders@example.com";
+
+    // Fixed clock for tests that line orders and transitions up by offset
+    static final Instant T0 = Instant.parse("2025-01-01T10:00:00Z");
+
+    private TestOrders() {}
+
+    /** An unsaved order of 100 INR, paid COD, placed now. */
+    static Order order(String orderId, OrderStatus status) {
+        Order order = new Order();
+        order.setOrderId(orderId);
+        order.setUserEmail(EMAIL);
+        order.setAddress("Street 1");
+        order.setTotalAmount(BigDecimal.valueOf(100));
+        order.setFinalAmount(BigDecimal.valueOf(100));
+        order.setStatus(status);
+        order.setPaymentMode(PaymentMode.COD);
+        order.setOrderedAt(Instant.now());
+        return order;
+    }
+
+    /** A 10 INR order placed secondsAfterT0 after T0, with a single line, as read for the kitchen. */
+    static OrderResponseDTO response(String orderId, OrderStatus status, int secondsAfterT0, String dish, int quantity) {
+        OrderResponseDTO order = new OrderResponseDTO(orderId, EMAIL, "Street 1", "Kim", status, PaymentMode.COD,
+                T0.plusSeconds(secondsAfterT0), BigDecimal.TEN, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO,
+                BigDecimal.TEN);
+        order.getItems().add(new OrderResponseDTO.OrderItemDTO(dish, quantity, 5));
+        return order;
+    }
+
+    /** The committed placement of a 10 INR order without lines. */
+    static OrderPlacedEvent placed(String orderId, int secondsAfterT0) {
+        return new OrderPlacedEvent(orderId, EMAIL, T0.plusSeconds(secondsAfterT0), OrderStatus.ORDERED,
+                PaymentMode.COD, BigDecimal.TEN, "Kim", "Street 1", List.of());
+    }
+
+    /** A committed change at secondsAfterT0 of an order placed at T0. */
+    static OrderStatusChangedEvent change(String orderId, OrderStatus from, OrderStatus to, int secondsAfterT0) {
+        return new OrderStatusChangedEvent(orderId, EMAIL, T0, PaymentMode.COD, BigDecimal.TEN, from, to,
+                T0.plusSeconds(secondsAfterT0), null);
+    }
+}